@@ -0,0 +1,30 @@
+package top.hxll.kimi.common;
+
+/**
+ * 分页总数计算方式
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public enum CountMode {
+
+    /**
+     * 执行 COUNT 查询返回精确总数
+     */
+    EXACT,
+
+    /**
+     * 不计算总数
+     */
+    NONE,
+
+    /**
+     * 返回估算总数：按筛选条件短期缓存的总数，无筛选条件时取 InnoDB 表统计行数
+     */
+    ESTIMATE,
+
+    /**
+     * 不计算总数，多取一条记录判断是否还有下一页
+     */
+    HAS_NEXT
+}
@@ -0,0 +1,64 @@
+package top.hxll.kimi.common;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 指定总数计算方式的分页对象
+ * HAS_NEXT 模式下查询时多取一条（LIMIT size+1），偏移量仍按原每页条数计算
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class CountedPage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 总数计算方式
+     */
+    private final CountMode countMode;
+
+    /**
+     * 请求的每页条数
+     */
+    private final long pageSize;
+
+    /**
+     * 是否还有下一页，仅 HAS_NEXT 模式下有值
+     */
+    private Boolean hasNext;
+
+    public CountedPage(long current, long size, CountMode countMode) {
+        super(current, countMode == CountMode.HAS_NEXT ? size + 1 : size, countMode == CountMode.EXACT);
+        this.countMode = countMode;
+        this.pageSize = size;
+    }
+
+    @Override
+    public long offset() {
+        long current = getCurrent();
+        return current <= 1 ? 0 : (current - 1) * pageSize;
+    }
+
+    /**
+     * HAS_NEXT 模式查询完成后调用：根据多取的一条判断是否有下一页，并恢复每页条数
+     */
+    public void completeLookahead() {
+        if (countMode != CountMode.HAS_NEXT || hasNext != null) {
+            return;
+        }
+        hasNext = getRecords().size() > pageSize;
+        if (hasNext) {
+            setRecords(getRecords().subList(0, (int) pageSize));
+        }
+        setSize(pageSize);
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+}
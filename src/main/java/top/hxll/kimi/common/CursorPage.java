@@ -0,0 +1,38 @@
+package top.hxll.kimi.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 每页条数
+     */
+    private int size;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasNext;
+
+    /**
+     * 下一页游标，没有下一页时为null
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package top.hxll.kimi.common;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * IP地址工具类
+ * 客户端地址取自 request.getRemoteAddr()，反向代理头由容器按 server.forward-headers-strategy 处理，
+ * 只信任内网代理，避免客户端伪造 X-Forwarded-For
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class IpUtils {
+
+    private static final String IPV6_LOOPBACK = "0:0:0:0:0:0:0:1";
+
+    private static final String IPV4_LOOPBACK = "127.0.0.1";
+
+    private IpUtils() {
+    }
+
+    /**
+     * 获取客户端IP地址
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        if (ip == null) {
+            return "unknown";
+        }
+        return IPV6_LOOPBACK.equals(ip) || "::1".equals(ip) ? IPV4_LOOPBACK : ip;
+    }
+}
@@ -0,0 +1,62 @@
+package top.hxll.kimi.common;
+
+import lombok.Getter;
+import top.hxll.kimi.common.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的继续位置 (time, id)
+ * 对外编码为不透明的 Base64URL 字符串，客户端只需原样回传
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public final class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 上一页最后一条记录的排序时间
+     */
+    private final LocalDateTime time;
+
+    /**
+     * 上一页最后一条记录的ID，排序时间相同时用于区分先后
+     */
+    private final Long id;
+
+    private PageCursor(LocalDateTime time, Long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * 编码游标
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，为空时返回null（从第一页开始）
+     *
+     * @throws BusinessException 游标格式无效
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+}
@@ -31,6 +31,16 @@ public class PageReq implements Serializable {
     @Max(value = 500, message = "每页条数不能大于500")
     private Integer size;
 
+    /**
+     * 游标（游标分页模式使用，为空时从第一页开始）
+     */
+    private String cursor;
+
+    /**
+     * 总数计算方式（默认精确计数）
+     */
+    private CountMode count;
+
     public Integer getPage() {
         return page == null ? 1 : page;
     }
@@ -39,10 +49,14 @@ public class PageReq implements Serializable {
         return size == null ? 10 : size;
     }
 
+    public CountMode getCount() {
+        return count == null ? CountMode.EXACT : count;
+    }
+
     /**
-     * 转换为MyBatis Plus的Page对象
+     * 转换为MyBatis Plus的Page对象，按 count 决定是否执行 COUNT 查询
      */
     public <T> Page<T> toPage() {
-        return new Page<>(getPage(), getSize());
+        return new CountedPage<>(getPage(), getSize(), getCount());
     }
 }
@@ -4,8 +4,10 @@ import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import top.hxll.kimi.common.exception.BusinessException;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 可排序分页请求类
@@ -26,17 +28,23 @@ public class SortPageReq extends PageReq {
 
     /**
      * 转换为MyBatis Plus的Page对象（带排序）
+     * 排序字段必须在白名单内，由白名单映射到实际列名，不会把请求中的字段直接拼入SQL
+     *
+     * @param sortableColumns 允许排序的字段 -> 数据库列名
+     * @throws BusinessException 排序字段不在白名单内
      */
-    @Override
-    public <T> Page<T> toPage() {
-        Page<T> page = super.toPage();
+    public <T> Page<T> toPage(Map<String, String> sortableColumns) {
+        Page<T> page = toPage();
 
         if (sorts != null && !sorts.isEmpty()) {
             sorts.forEach(sort -> {
                 if (sort.getField() != null && !sort.getField().trim().isEmpty()) {
+                    String column = sortableColumns.get(sort.getField().trim());
+                    if (column == null) {
+                        throw new BusinessException(400, "不支持的排序字段: " + sort.getField());
+                    }
                     boolean isAsc = !"desc".equalsIgnoreCase(sort.getOrder());
-                    page.addOrder(isAsc ? OrderItem.asc(sort.getField())
-                                       : OrderItem.desc(sort.getField()));
+                    page.addOrder(isAsc ? OrderItem.asc(column) : OrderItem.desc(column));
                 }
             });
         }
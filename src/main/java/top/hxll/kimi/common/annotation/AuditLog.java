@@ -0,0 +1,45 @@
+package top.hxll.kimi.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 操作日志注解
+ * 标注在控制器方法上，调用结果异步写入 sys_operation_log
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditLog {
+
+    /**
+     * 操作模块
+     */
+    String module();
+
+    /**
+     * 操作类型
+     */
+    String type();
+
+    /**
+     * 操作描述
+     */
+    String description() default "";
+
+    /**
+     * 是否记录请求参数
+     */
+    boolean saveParams() default true;
+
+    /**
+     * 是否记录响应结果
+     */
+    boolean saveResult() default true;
+}
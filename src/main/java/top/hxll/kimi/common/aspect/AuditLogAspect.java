@@ -0,0 +1,240 @@
+package top.hxll.kimi.common.aspect;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
+import top.hxll.kimi.common.IpUtils;
+import top.hxll.kimi.common.Result;
+import top.hxll.kimi.common.UserContextUtils;
+import top.hxll.kimi.common.annotation.AuditLog;
+import top.hxll.kimi.common.concurrent.AsyncBatchWriter;
+import top.hxll.kimi.entity.OperationLog;
+import top.hxll.kimi.mapper.OperationLogMapper;
+import top.hxll.kimi.security.service.UserDetailsImpl;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 操作日志切面
+ * 请求线程只采集原始信息（参数和返回值保留引用，不做序列化）并放入有界队列；
+ * 参数序列化、敏感字段脱敏、截断和批量写库都在后台写入线程中完成，不占用请求线程和数据库连接
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Aspect
+@Component
+public class AuditLogAspect {
+
+    private static final String MASK = "******";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncBatchWriter<PendingLog> writer;
+
+    private final OperationLogMapper operationLogMapper;
+
+    @Value("${audit-log.max-content-length:2000}")
+    private int maxContentLength;
+
+    public AuditLogAspect(ObjectMapper objectMapper, OperationLogMapper operationLogMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit-log.capacity:4096}") int capacity,
+                          @Value("${audit-log.batch-size:100}") int batchSize,
+                          @Value("${audit-log.flush-interval:2000}") long flushInterval) {
+        this.objectMapper = objectMapper;
+        this.operationLogMapper = operationLogMapper;
+        this.writer = new AsyncBatchWriter<>("operation-log", capacity, batchSize, flushInterval, this::write);
+
+        FunctionCounter.builder("audit.log.dropped", writer, AsyncBatchWriter::getDroppedCount)
+                .description("Operation log entries dropped because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.log.failed", writer, AsyncBatchWriter::getFailedCount)
+                .description("Operation log entries lost because the batch insert failed")
+                .register(meterRegistry);
+    }
+
+    @Around(value = "@annotation(auditLog)", argNames = "joinPoint,auditLog")
+    public Object around(ProceedingJoinPoint joinPoint, AuditLog auditLog) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            try {
+                capture(joinPoint, auditLog, result, error, System.nanoTime() - start);
+            } catch (Exception e) {
+                log.warn("Failed to capture operation log: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writer.close();
+    }
+
+    private void capture(ProceedingJoinPoint joinPoint, AuditLog auditLog, Object result, Throwable error,
+                         long costNanos) {
+        PendingLog pending = new PendingLog();
+        pending.auditLog = auditLog;
+        pending.operationTime = LocalDateTime.now();
+        pending.costMillis = TimeUnit.NANOSECONDS.toMillis(costNanos);
+        pending.args = auditLog.saveParams() ? filterArgs(joinPoint.getArgs()) : null;
+        pending.result = auditLog.saveResult() ? result : null;
+        if (error != null) {
+            pending.success = false;
+            pending.errorMessage = error.getClass().getSimpleName() + ": " + error.getMessage();
+        } else {
+            pending.success = !(result instanceof Result) || Integer.valueOf(200).equals(((Result<?>) result).getCode());
+        }
+
+        UserDetailsImpl user = UserContextUtils.getCurrentUserDetailsSafely();
+        if (user != null) {
+            pending.userId = user.getId();
+            pending.username = user.getUsername();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            pending.requestMethod = request.getMethod();
+            pending.requestUrl = request.getRequestURI();
+            pending.ip = IpUtils.getClientIp(request);
+        }
+
+        writer.submit(pending);
+    }
+
+    /**
+     * 去掉请求、响应、文件等不能或不应序列化的参数
+     */
+    private static Object[] filterArgs(Object[] args) {
+        List<Object> filtered = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse
+                    || arg instanceof MultipartFile || arg instanceof BindingResult) {
+                continue;
+            }
+            filtered.add(arg);
+        }
+        return filtered.toArray();
+    }
+
+    /**
+     * 后台线程：序列化、脱敏并批量写入
+     */
+    private void write(List<PendingLog> batch) {
+        List<OperationLog> logs = new ArrayList<>(batch.size());
+        for (PendingLog pending : batch) {
+            OperationLog operationLog = new OperationLog();
+            operationLog.setUserId(pending.userId);
+            operationLog.setUsername(pending.username);
+            operationLog.setOperationModule(pending.auditLog.module());
+            operationLog.setOperationType(pending.auditLog.type());
+            operationLog.setOperationDesc(pending.auditLog.description());
+            operationLog.setRequestMethod(pending.requestMethod);
+            operationLog.setRequestUrl(pending.requestUrl);
+            operationLog.setOperationIp(pending.ip);
+            operationLog.setOperationTime(pending.operationTime);
+            operationLog.setCostTime(pending.costMillis);
+            operationLog.setStatus(pending.success ? 1 : 0);
+            operationLog.setErrorMessage(truncate(pending.errorMessage, MAX_ERROR_LENGTH));
+            if (pending.args != null) {
+                operationLog.setRequestParam(serialize(pending.args));
+            }
+            if (pending.result != null) {
+                operationLog.setResponseResult(serialize(pending.result));
+            }
+            logs.add(operationLog);
+        }
+        operationLogMapper.batchInsert(logs);
+    }
+
+    private String serialize(Object value) {
+        try {
+            JsonNode node = objectMapper.valueToTree(value);
+            mask(node);
+            return truncate(node.toString(), maxContentLength);
+        } catch (Exception e) {
+            return "[unserializable: " + e.getMessage() + "]";
+        }
+    }
+
+    /**
+     * 脱敏：字段名包含password的值替换为掩码
+     */
+    private static void mask(JsonNode node) {
+        if (node instanceof ObjectNode) {
+            ObjectNode object = (ObjectNode) node;
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            List<String> sensitive = new ArrayList<>();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getKey().toLowerCase(Locale.ROOT).contains("password")) {
+                    sensitive.add(field.getKey());
+                } else {
+                    mask(field.getValue());
+                }
+            }
+            sensitive.forEach(name -> object.put(name, MASK));
+        } else if (node instanceof ArrayNode) {
+            node.forEach(AuditLogAspect::mask);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) + "..." : value;
+    }
+
+    /**
+     * 待写入的原始操作信息
+     */
+    private static final class PendingLog {
+
+        AuditLog auditLog;
+        Long userId;
+        String username;
+        String requestMethod;
+        String requestUrl;
+        String ip;
+        LocalDateTime operationTime;
+        long costMillis;
+        Object[] args;
+        Object result;
+        boolean success;
+        String errorMessage;
+    }
+}
@@ -0,0 +1,236 @@
+package top.hxll.kimi.common.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 带过期时间的有界 LRU 缓存
+ * 按 key 的哈希分段加锁，每段为 access-order 的 LinkedHashMap，段内淘汰最久未访问的条目
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class ExpiringLruCache<K, V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+
+    private final int segmentMask;
+
+    /**
+     * 默认存活时间（毫秒）
+     */
+    private final long defaultTtlMillis;
+
+    public ExpiringLruCache(int maxSize, long defaultTtlMillis) {
+        this(maxSize, defaultTtlMillis, DEFAULT_SEGMENTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ExpiringLruCache(int maxSize, long defaultTtlMillis, int segmentCount) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        int count = 1;
+        while (count < segmentCount && count < maxSize) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        int perSegment = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+        this.segmentMask = count - 1;
+        this.defaultTtlMillis = defaultTtlMillis;
+    }
+
+    /**
+     * 获取缓存值，已过期的条目会被移除并返回null
+     */
+    public V get(K key) {
+        return segmentFor(key).get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 使用默认存活时间写入缓存
+     */
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + defaultTtlMillis);
+    }
+
+    /**
+     * 写入缓存，并指定绝对过期时间（毫秒时间戳）
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        segmentFor(key).put(key, value, expiresAtMillis);
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时用factory创建并以默认存活时间写入
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        return segmentFor(key).computeIfAbsent(key, factory, System.currentTimeMillis(), defaultTtlMillis);
+    }
+
+    /**
+     * 移除指定key
+     */
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    /**
+     * 移除所有满足条件的条目
+     *
+     * @return 移除的条目数
+     */
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            removed += segment.removeIf(filter);
+        }
+        return removed;
+    }
+
+    /**
+     * 清理所有已过期的条目
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            removed += segment.purge(now);
+        }
+        return removed;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 当前条目数（包含尚未清理的过期条目）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    /**
+     * 缓存段
+     */
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(final int capacity) {
+            this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                map.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(K key, V value, long expiresAt) {
+            map.put(key, new Entry<>(value, expiresAt));
+        }
+
+        synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory, long now, long ttl) {
+            V value = get(key, now);
+            if (value == null) {
+                value = factory.apply(key);
+                map.put(key, new Entry<>(value, now + ttl));
+            }
+            return value;
+        }
+
+        synchronized V remove(K key) {
+            Entry<V> entry = map.remove(key);
+            return entry == null ? null : entry.value;
+        }
+
+        synchronized int removeIf(BiPredicate<? super K, ? super V> filter) {
+            int removed = 0;
+            Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (filter.test(e.getKey(), e.getValue().value)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        synchronized int purge(long now) {
+            int removed = 0;
+            Iterator<Entry<V>> it = map.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt <= now) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry<V> {
+
+        final V value;
+
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package top.hxll.kimi.common.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 异步批量写入器
+ * 调用方只把元素放入有界环形队列，后台线程按间隔或积累到批量大小时取出并批量写入；
+ * 队列满时丢弃并计数，不阻塞调用方；批量写入失败时拆分重试，只丢弃无法写入的元素。关闭时写出剩余元素
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+public class AsyncBatchWriter<E> {
+
+    private final String name;
+
+    private final BoundedRingBuffer<E> buffer;
+
+    private final Consumer<List<E>> sink;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param name            名称，用于线程名和日志
+     * @param capacity        队列容量
+     * @param batchSize       单批最大元素数量
+     * @param flushIntervalMs 最长刷新间隔（毫秒）
+     * @param sink            批量写入逻辑
+     */
+    public AsyncBatchWriter(String name, int capacity, int batchSize, long flushIntervalMs, Consumer<List<E>> sink) {
+        this.name = name;
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.worker = new Thread(this::run, name + "-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交元素
+     *
+     * @return 队列已满被丢弃时返回false
+     */
+    public boolean submit(E element) {
+        if (!buffer.offer(element)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    /**
+     * 停止后台线程并写出剩余元素
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 后台线程未能及时结束时由当前线程写出
+        flush();
+    }
+
+    /**
+     * 因队列已满被丢弃的元素数量
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 已写入的元素数量
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 写入失败的元素数量
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * 队列中等待写入的元素数量
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    private void run() {
+        while (running) {
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flush();
+        }
+    }
+
+    private synchronized void flush() {
+        List<E> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                sink.accept(batch);
+                written.addAndGet(batch.size());
+            } catch (Exception e) {
+                log.warn("[{}] Failed to write batch of {}, retrying in halves: {}", name, batch.size(), e.getMessage());
+                writeInHalves(batch);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * 批量写入失败后二分重试，隔离无法写入的元素，其余元素正常写入。
+     * 前一半（至少两个元素）全部写入失败时视为存储不可用，后一半直接计入失败，重试次数约为 log2(批量大小)
+     *
+     * @return 写入成功的元素数量
+     */
+    private int writeInHalves(List<E> batch) {
+        int middle = batch.size() >>> 1;
+        List<E> first = batch.subList(0, middle);
+        List<E> second = batch.subList(middle, batch.size());
+
+        int firstWritten = retry(first);
+        if (firstWritten == 0 && first.size() > 1) {
+            failed.addAndGet(second.size());
+            return 0;
+        }
+        return firstWritten + retry(second);
+    }
+
+    private int retry(List<E> batch) {
+        try {
+            sink.accept(batch);
+            written.addAndGet(batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                failed.incrementAndGet();
+                log.warn("[{}] Dropping element that cannot be written: {}", name, e.getMessage());
+                return 0;
+            }
+            return writeInHalves(batch);
+        }
+    }
+}
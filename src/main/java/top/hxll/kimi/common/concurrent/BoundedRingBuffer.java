@@ -0,0 +1,133 @@
+package top.hxll.kimi.common.concurrent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列（多生产者多消费者）
+ * 每个槽位带序号，生产者和消费者各自通过CAS推进位置；队列满时offer立即返回false，不阻塞
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * 槽位序号：等于写入位置时可写，等于写入位置+1时可读
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public BoundedRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 入队
+     *
+     * @return 队列已满时返回false
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 出队
+     *
+     * @return 队列为空时返回null
+     */
+    public E poll() {
+        long position = head.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * 批量出队
+     *
+     * @return 实际取出的数量
+     */
+    public int drainTo(List<? super E> target, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素数量（并发时为近似值）
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
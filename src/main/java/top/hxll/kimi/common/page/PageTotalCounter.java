@@ -0,0 +1,112 @@
+package top.hxll.kimi.common.page;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.common.CountMode;
+import top.hxll.kimi.common.CountedPage;
+import top.hxll.kimi.common.cache.ExpiringLruCache;
+import top.hxll.kimi.mapper.TableStatsMapper;
+
+import javax.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询总数处理
+ * 按分页对象的 CountMode 决定是否执行 COUNT：精确、不计算、估算（短期缓存或表统计）、多取一条判断下一页
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageTotalCounter {
+
+    private final TableStatsMapper tableStatsMapper;
+
+    @Value("${page-count.cache.max-size:1000}")
+    private int cacheMaxSize;
+
+    @Value("${page-count.cache.ttl:30}")
+    private int cacheTtlSeconds;
+
+    /**
+     * 估算总数缓存：表名 + 归一化的筛选条件 -> 总数
+     */
+    private ExpiringLruCache<String, Long> estimates;
+
+    @PostConstruct
+    public void init() {
+        this.estimates = new ExpiringLruCache<>(cacheMaxSize, cacheTtlSeconds * 1000L);
+    }
+
+    /**
+     * 执行分页查询
+     *
+     * @param page      分页对象，非 CountedPage 时按精确总数处理
+     * @param table     表名，用于估算总数
+     * @param filterKey 归一化的筛选条件，无筛选条件时为空字符串
+     * @param query     分页查询
+     * @param counter   精确 COUNT 查询，估算缓存未命中且有筛选条件时使用
+     */
+    public <T> IPage<T> selectPage(Page<T> page, String table, String filterKey,
+                                   Function<Page<T>, IPage<T>> query, Supplier<Long> counter) {
+        if (!(page instanceof CountedPage)) {
+            return query.apply(page);
+        }
+        CountedPage<T> countedPage = (CountedPage<T>) page;
+        CountMode mode = countedPage.getCountMode();
+
+        if (mode == CountMode.ESTIMATE) {
+            countedPage.setTotal(estimate(table, filterKey, counter));
+        }
+        IPage<T> result = query.apply(countedPage);
+        if (mode == CountMode.HAS_NEXT) {
+            countedPage.completeLookahead();
+        }
+        return result;
+    }
+
+    /**
+     * 归一化筛选条件作为估算缓存的key，所有条件为空时返回空字符串
+     */
+    public static String filterKey(Object... filters) {
+        StringBuilder key = new StringBuilder();
+        boolean empty = true;
+        for (Object filter : filters) {
+            String value = filter == null ? "" : filter.toString().trim().toLowerCase(Locale.ROOT);
+            empty &= value.isEmpty();
+            key.append(value).append('\u0001');
+        }
+        return empty ? "" : key.toString();
+    }
+
+    private long estimate(String table, String filterKey, Supplier<Long> counter) {
+        String cacheKey = table + '\u0000' + filterKey;
+        Long cached = estimates.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Long total = null;
+        if (filterKey.isEmpty()) {
+            // 无筛选条件：直接取表统计行数，避免全表 COUNT
+            try {
+                total = tableStatsMapper.selectEstimatedRows(table);
+            } catch (RuntimeException e) {
+                log.warn("Failed to read table statistics for {}, fall back to COUNT", table, e);
+            }
+        }
+        if (total == null) {
+            total = counter.get();
+        }
+        estimates.put(cacheKey, total);
+        return total;
+    }
+}
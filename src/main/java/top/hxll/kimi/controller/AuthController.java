@@ -1,15 +1,21 @@
 package top.hxll.kimi.controller;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import top.hxll.kimi.common.IpUtils;
 import top.hxll.kimi.common.Result;
 import top.hxll.kimi.common.UserContextUtils;
+import top.hxll.kimi.common.exception.BusinessException;
 import top.hxll.kimi.common.exception.PasswordException;
 import top.hxll.kimi.common.exception.TokenException;
 import top.hxll.kimi.dto.req.auth.LoginReq;
@@ -19,13 +25,24 @@ import top.hxll.kimi.dto.req.user.PasswordChangeReq;
 import top.hxll.kimi.dto.resp.JwtResp;
 import top.hxll.kimi.entity.User;
 import top.hxll.kimi.mapper.UserMapper;
+import top.hxll.kimi.security.crypto.PasswordHashExecutor;
+import top.hxll.kimi.security.login.LastLoginRecorder;
+import top.hxll.kimi.security.login.LoginLogRecorder;
+import top.hxll.kimi.security.refresh.RefreshTokenService;
+import top.hxll.kimi.security.revocation.TokenRevocationService;
+import top.hxll.kimi.security.throttle.LoginThrottle;
 import top.hxll.kimi.security.service.UserDetailsImpl;
 import top.hxll.kimi.security.service.UserDetailsServiceImpl;
 import top.hxll.kimi.security.util.JwtUtils;
 import top.hxll.kimi.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -46,50 +63,95 @@ public class AuthController {
     private final UserMapper userMapper;
     private final UserDetailsServiceImpl userDetailsService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordHashExecutor passwordHashExecutor;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor applicationTaskExecutor;
+    private final LoginThrottle loginThrottle;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final LoginLogRecorder loginLogRecorder;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * 用户注册
      */
     @PostMapping("/register")
-    public Result<Object> register(@Valid @RequestBody RegisterReq registerReq) {
+    public CompletableFuture<Result<Object>> register(@Valid @RequestBody RegisterReq registerReq) {
         log.info("User registration attempt: {}", registerReq.getUsername());
 
         // 验证新密码是否一致
         if (!registerReq.isPasswordMatch()) {
-            return Result.error("两次输入的新密码不一致");
+            return CompletableFuture.completedFuture(Result.error("两次输入的新密码不一致"));
         }
 
-        // 注册用户（Service层会验证密码一致性并抛出异常）
-        User user = userService.register(registerReq);
-
-        log.info("User registered successfully: {}", user.getUsername());
-        return Result.success("注册成功", user);
+        // 密码哈希线程池只计算BCrypt，注册事务在任务线程池中执行，均不占用请求线程
+        return passwordHashExecutor.submit(() -> passwordEncoder.encode(registerReq.getPassword()))
+                .thenCompose(encodedPassword -> supplyAsync(() -> {
+                    User user = userService.register(registerReq, encodedPassword);
+                    log.info("User registered successfully: {}", user.getUsername());
+                    return Result.success("注册成功", user);
+                }));
     }
 
     /**
      * 用户登录
      */
     @PostMapping("/login")
-    public Result<JwtResp> login(@Valid @RequestBody LoginReq loginReq) {
+    public CompletableFuture<Result<JwtResp>> login(@Valid @RequestBody LoginReq loginReq,
+                                                    HttpServletRequest request) {
         log.info("User login attempt: {}", loginReq.getUsername());
 
-        // 用户认证
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginReq.getUsername(),
-                        loginReq.getPassword())
-        );
+        // 登录限流，被封禁的请求不查询数据库也不计算BCrypt
+        String clientIp = IpUtils.getClientIp(request);
+        String userAgent = request.getHeader("User-Agent");
+        try {
+            loginThrottle.checkAllowed(loginReq.getUsername(), clientIp);
+        } catch (BusinessException e) {
+            loginLogRecorder.recordFailure(loginReq.getUsername(), clientIp, userAgent, e.getMessage());
+            throw e;
+        }
+
+        // 用户认证（加载用户）和令牌签发在任务线程池中执行，其中的BCrypt校验由密码编码器提交到密码哈希线程池
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(loginReq.getUsername(), loginReq.getPassword());
+        return supplyAsync(() -> authenticationManager.authenticate(authenticationToken))
+                .whenComplete((authentication, ex) -> {
+                    if (ex == null) {
+                        loginThrottle.recordSuccess(loginReq.getUsername());
+                        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                        loginLogRecorder.recordSuccess(userDetails.getId(), userDetails.getUsername(),
+                                clientIp, userAgent);
+                    } else if (unwrap(ex) instanceof AuthenticationException) {
+                        loginThrottle.recordFailure(loginReq.getUsername(), clientIp);
+                        loginLogRecorder.recordFailure(loginReq.getUsername(), clientIp, userAgent,
+                                unwrap(ex).getMessage());
+                    }
+                })
+                .thenApply(authentication -> buildLoginResult(loginReq, authentication, clientIp));
+    }
 
-        // 设置认证信息到上下文
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    /**
+     * 在任务线程池中执行数据库访问和令牌签发，队列已满时以503拒绝
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, applicationTaskExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Task executor queue is full, rejecting request");
+            throw new BusinessException(503, "系统繁忙，请稍后重试");
+        }
+    }
 
+    /**
+     * 认证成功后生成令牌并构建登录响应
+     */
+    private Result<JwtResp> buildLoginResult(LoginReq loginReq, Authentication authentication, String clientIp) {
         // 生成JWT令牌
         String jwt = jwtUtils.generateJwtToken(authentication);
-        String refreshToken = jwtUtils.generateRefreshToken(authentication.getName());
+        String refreshToken = refreshTokenService.issue(authentication.getName());
 
         // 获取用户信息
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        User user = userMapper.selectById(userDetails.getId());
 
         // 获取用户角色和权限
         List<String> roles = userDetails.getAuthorities().stream()
@@ -102,13 +164,8 @@ public class AuthController {
                 .map(grantedAuthority -> grantedAuthority.getAuthority())
                 .collect(Collectors.toList());
 
-        // 更新最后登录时间
-        if (user != null) {
-            user.setLastLoginTime(java.time.LocalDateTime.now());
-            // 这里可以添加IP获取逻辑
-            // user.setLastLoginIp(getClientIp(request));
-            userMapper.updateById(user);
-        }
+        // 记录最后登录时间和IP，延迟批量写入
+        lastLoginRecorder.record(userDetails.getId(), clientIp);
 
         // 构建响应
         JwtResp jwtResp = new JwtResp(
@@ -137,12 +194,16 @@ public class AuthController {
         String refreshToken = refreshTokenReq.getRefreshToken();
 
         // 验证刷新令牌
-        if (!jwtUtils.validateJwtToken(refreshToken)) {
+        Claims claims = jwtUtils.parseClaims(refreshToken);
+        if (claims == null) {
             throw new TokenException("刷新令牌无效或已过期");
         }
 
+        // 作废旧刷新令牌并签发新刷新令牌，旧令牌被重复使用时吊销整个令牌族
+        String newRefreshToken = refreshTokenService.rotate(claims);
+
         // 从刷新令牌获取用户名
-        String username = jwtUtils.getUserNameFromJwtToken(refreshToken);
+        String username = claims.getSubject();
 
         // 获取用户信息
         UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
@@ -166,7 +227,7 @@ public class AuthController {
         // 构建响应
         JwtResp jwtResp = new JwtResp(
                 newAccessToken,
-                refreshToken, // 刷新令牌不变
+                newRefreshToken,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getNickname(),
@@ -228,9 +289,21 @@ public class AuthController {
      * 退出登录
      */
     @PostMapping("/logout")
-    public Result<Object> logout() {
-        // 对于JWT，登出主要是客户端删除token
-        // 这里可以添加一些清理逻辑，如记录登出日志等
+    public Result<Object> logout(HttpServletRequest request,
+                                 @RequestBody(required = false) RefreshTokenReq refreshTokenReq) {
+        // 吊销当前访问令牌，客户端一并提交刷新令牌时同时吊销
+        String jwt = jwtUtils.getJwtFromRequest(request);
+        Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+        if (claims != null) {
+            tokenRevocationService.revokeToken(claims);
+        }
+        if (refreshTokenReq != null && refreshTokenReq.getRefreshToken() != null) {
+            Claims refreshClaims = jwtUtils.parseClaims(refreshTokenReq.getRefreshToken());
+            if (refreshClaims != null) {
+                refreshTokenService.revoke(refreshClaims);
+            }
+        }
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null) {
             log.info("User logout: {}", authentication.getName());
@@ -238,4 +311,8 @@ public class AuthController {
         }
         return Result.success("登出成功");
     }
-}
\ No newline at end of file
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
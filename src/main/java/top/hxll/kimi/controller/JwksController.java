@@ -0,0 +1,52 @@
+package top.hxll.kimi.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import top.hxll.kimi.common.Result;
+import top.hxll.kimi.security.key.JwtKeyManager;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT密钥控制器
+ * 对外发布验签公钥，供下游服务自行校验令牌
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyManager jwtKeyManager;
+
+    /**
+     * 获取验签公钥集合（JWKS）
+     */
+    @GetMapping("/api/public/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwkSet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                .body(jwtKeyManager.getJwkSet());
+    }
+
+    /**
+     * 轮换签名密钥
+     */
+    @PostMapping("/api/admin/keys/rotate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, String>> rotateKey() {
+        String keyId = jwtKeyManager.rotate();
+        log.info("Signing key rotated by admin, new kid: {}", keyId);
+        return Result.success("密钥轮换成功", Collections.singletonMap("kid", keyId));
+    }
+}
@@ -7,8 +7,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import top.hxll.kimi.common.CountMode;
+import top.hxll.kimi.common.CountedPage;
 import top.hxll.kimi.common.Result;
+import top.hxll.kimi.common.annotation.AuditLog;
 import top.hxll.kimi.dto.PermissionDto;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
 import top.hxll.kimi.entity.Permission;
 import top.hxll.kimi.service.PermissionService;
 
@@ -59,6 +63,7 @@ public class PermissionController {
     public Result<IPage<PermissionDto>> getPermissionPage(
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
             @RequestParam(defaultValue = "10") @Min(1) Integer size,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Integer permissionType) {
 
@@ -66,7 +71,7 @@ public class PermissionController {
                  page, size, keyword, permissionType);
 
         try {
-            Page<Permission> pageRequest = new Page<>(page, size);
+            Page<Permission> pageRequest = new CountedPage<>(page, size, count);
             IPage<PermissionDto> permissionPage = permissionService.getPermissionPage(pageRequest, keyword, permissionType);
             return Result.success(permissionPage);
         } catch (Exception e) {
@@ -120,6 +125,7 @@ public class PermissionController {
      */
     @PostMapping
     @PreAuthorize("hasAuthority('permission:add') or hasRole('ADMIN')")
+    @AuditLog(module = "权限管理", type = "新增", description = "创建权限")
     public Result<Permission> createPermission(@Valid @RequestBody PermissionDto permissionDto) {
         log.info("Creating permission: {}", permissionDto.getPermissionCode());
 
@@ -137,6 +143,7 @@ public class PermissionController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('permission:update') or hasRole('ADMIN')")
+    @AuditLog(module = "权限管理", type = "修改", description = "更新权限")
     public Result<Permission> updatePermission(
             @PathVariable @NotNull Long id,
             @Valid @RequestBody PermissionDto permissionDto) {
@@ -156,6 +163,7 @@ public class PermissionController {
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('permission:delete') or hasRole('ADMIN')")
+    @AuditLog(module = "权限管理", type = "删除", description = "删除权限")
     public Result<Object> deletePermission(@PathVariable @NotNull Long id) {
         log.info("Deleting permission: {}", id);
 
@@ -177,12 +185,16 @@ public class PermissionController {
      */
     @DeleteMapping("/batch")
     @PreAuthorize("hasAuthority('permission:delete') or hasRole('ADMIN')")
-    public Result<Object> deletePermissions(@RequestBody Long[] ids) {
+    @AuditLog(module = "权限管理", type = "删除", description = "批量删除权限")
+    public Result<BatchDeleteResp> deletePermissions(@RequestBody Long[] ids) {
         log.info("Batch deleting permissions: {}", ids);
 
         try {
-            permissionService.deletePermissions(Arrays.asList(ids));
-            return Result.success("批量删除权限成功");
+            BatchDeleteResp result = permissionService.deletePermissions(Arrays.asList(ids));
+            if (result.isAllDeleted()) {
+                return Result.success("批量删除权限成功", result);
+            }
+            return Result.success("部分权限删除失败", result);
         } catch (Exception e) {
             log.error("Failed to batch delete permissions", e);
             return Result.error(e.getMessage());
@@ -194,6 +206,7 @@ public class PermissionController {
      */
     @PutMapping("/{id}/status")
     @PreAuthorize("hasAuthority('permission:update') or hasRole('ADMIN')")
+    @AuditLog(module = "权限管理", type = "修改", description = "启用/禁用权限")
     public Result<Object> togglePermissionStatus(
             @PathVariable @NotNull Long id,
             @RequestParam @NotNull Integer status) {
@@ -7,9 +7,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import top.hxll.kimi.common.CountMode;
+import top.hxll.kimi.common.CountedPage;
 import top.hxll.kimi.common.Result;
+import top.hxll.kimi.common.annotation.AuditLog;
 import top.hxll.kimi.dto.PermissionDto;
 import top.hxll.kimi.dto.RoleDto;
+import top.hxll.kimi.dto.req.role.RolePermissionPatchReq;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
 import top.hxll.kimi.entity.Permission;
 import top.hxll.kimi.entity.Role;
 import top.hxll.kimi.service.PermissionService;
@@ -63,13 +68,14 @@ public class RoleController {
     public Result<IPage<RoleDto>> getRolePage(
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
             @RequestParam(defaultValue = "10") @Min(1) Integer size,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Integer status) {
 
         log.info("Getting role page: page={}, size={}, keyword={}, status={}", page, size, keyword, status);
 
         try {
-            Page<Role> pageRequest = new Page<>(page, size);
+            Page<Role> pageRequest = new CountedPage<>(page, size, count);
             IPage<RoleDto> rolePage = roleService.getRolePage(pageRequest, keyword, status);
             return Result.success(rolePage);
         } catch (Exception e) {
@@ -140,6 +146,7 @@ public class RoleController {
      */
     @PostMapping
     @PreAuthorize("hasAuthority('role:add') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "新增", description = "创建角色")
     public Result<Role> createRole(@Valid @RequestBody RoleDto roleDto) {
         log.info("Creating role: {}", roleDto.getRoleCode());
 
@@ -157,6 +164,7 @@ public class RoleController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('role:update') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "修改", description = "更新角色")
     public Result<Role> updateRole(
             @PathVariable @NotNull Long id,
             @Valid @RequestBody RoleDto roleDto) {
@@ -176,6 +184,7 @@ public class RoleController {
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('role:delete') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "删除", description = "删除角色")
     public Result<Object> deleteRole(@PathVariable @NotNull Long id) {
         log.info("Deleting role: {}", id);
 
@@ -197,12 +206,16 @@ public class RoleController {
      */
     @DeleteMapping("/batch")
     @PreAuthorize("hasAuthority('role:delete') or hasRole('ADMIN')")
-    public Result<Object> deleteRoles(@RequestBody Long[] ids) {
+    @AuditLog(module = "角色管理", type = "删除", description = "批量删除角色")
+    public Result<BatchDeleteResp> deleteRoles(@RequestBody Long[] ids) {
         log.info("Batch deleting roles: {}", ids);
 
         try {
-            roleService.deleteRoles(Arrays.asList(ids));
-            return Result.success("批量删除角色成功");
+            BatchDeleteResp result = roleService.deleteRoles(Arrays.asList(ids));
+            if (result.isAllDeleted()) {
+                return Result.success("批量删除角色成功", result);
+            }
+            return Result.success("部分角色删除失败", result);
         } catch (Exception e) {
             log.error("Failed to batch delete roles", e);
             return Result.error(e.getMessage());
@@ -214,6 +227,7 @@ public class RoleController {
      */
     @PutMapping("/{id}/status")
     @PreAuthorize("hasAuthority('role:update') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "修改", description = "启用/禁用角色")
     public Result<Object> toggleRoleStatus(
             @PathVariable @NotNull Long id,
             @RequestParam @NotNull Integer status) {
@@ -254,6 +268,7 @@ public class RoleController {
      */
     @PutMapping("/{id}/permissions")
     @PreAuthorize("hasAuthority('role:update') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "修改", description = "更新角色权限")
     public Result<Object> updateRolePermissions(
             @PathVariable @NotNull Long id,
             @RequestBody Long[] permissionIds) {
@@ -272,6 +287,32 @@ public class RoleController {
         }
     }
 
+    /**
+     * 增量修改角色权限
+     */
+    @PatchMapping("/{id}/permissions")
+    @PreAuthorize("hasAuthority('role:update') or hasRole('ADMIN')")
+    @AuditLog(module = "角色管理", type = "修改", description = "增量修改角色权限")
+    public Result<Object> patchRolePermissions(
+            @PathVariable @NotNull Long id,
+            @RequestBody RolePermissionPatchReq patchRequest) {
+        log.info("Patching permissions for role: {} +{} -{}", id,
+                patchRequest.getAddPermissionIds(), patchRequest.getRemovePermissionIds());
+
+        try {
+            boolean result = roleService.patchRolePermissions(id,
+                    patchRequest.getAddPermissionIds(), patchRequest.getRemovePermissionIds());
+            if (result) {
+                return Result.success("角色权限更新成功");
+            } else {
+                return Result.error("角色权限更新失败");
+            }
+        } catch (Exception e) {
+            log.error("Failed to patch role permissions: {}", id, e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取角色权限ID列表
      */
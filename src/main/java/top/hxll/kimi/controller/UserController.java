@@ -6,8 +6,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import top.hxll.kimi.common.CursorPage;
 import top.hxll.kimi.common.PageReq;
 import top.hxll.kimi.common.Result;
+import top.hxll.kimi.common.SortPageReq;
+import top.hxll.kimi.common.annotation.AuditLog;
 import top.hxll.kimi.common.exception.PasswordException;
 import top.hxll.kimi.dto.*;
 import top.hxll.kimi.dto.req.user.UserCreateReq;
@@ -16,8 +19,14 @@ import top.hxll.kimi.entity.User;
 import top.hxll.kimi.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,6 +42,20 @@ import java.util.Map;
 @Validated
 public class UserController {
 
+    /**
+     * 允许排序的字段 -> 列名，只包含有索引的列
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS;
+
+    static {
+        Map<String, String> columns = new HashMap<>();
+        columns.put("id", "id");
+        columns.put("username", "username");
+        columns.put("status", "status");
+        columns.put("createTime", "create_time");
+        SORTABLE_COLUMNS = Collections.unmodifiableMap(columns);
+    }
+
     private final UserService userService;
 
     /**
@@ -40,16 +63,41 @@ public class UserController {
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public Result<IPage<UserDto>> getUserPage(PageReq pageReq,
+    public Result<IPage<UserDto>> getUserPage(@Valid SortPageReq pageReq,
                                              @RequestParam(required = false) String keyword,
                                              @RequestParam(required = false) Integer status) {
 
         log.info("Getting user page: page={}, size={}, keyword={}, status={}",
                 pageReq.getPage(), pageReq.getSize(), keyword, status);
-        IPage<UserDto> userPage = userService.getUserPage(pageReq.toPage(), keyword, status);
+        IPage<UserDto> userPage = userService.getUserPage(pageReq.toPage(SORTABLE_COLUMNS), keyword, status);
+        return Result.success(userPage);
+    }
+
+    /**
+     * 游标分页获取用户列表，深分页与第一页开销相同
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<CursorPage<UserDto>> getUserCursorPage(@Valid PageReq pageReq,
+                                                         @RequestParam(required = false) String keyword,
+                                                         @RequestParam(required = false) Integer status) {
+
+        log.info("Getting user cursor page: cursor={}, size={}, keyword={}, status={}",
+                pageReq.getCursor(), pageReq.getSize(), keyword, status);
+        CursorPage<UserDto> userPage = userService.getUserCursorPage(pageReq.getCursor(), pageReq.getSize(), keyword, status);
         return Result.success(userPage);
     }
 
+    /**
+     * 按用户名或昵称前缀联想用户
+     */
+    @GetMapping("/suggest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<List<UserSuggestDto>> suggestUsers(@RequestParam @NotBlank String prefix,
+                                                     @RequestParam(defaultValue = "10") @Min(1) @Max(50) Integer limit) {
+        return Result.success(userService.suggestUsers(prefix, limit));
+    }
+
     /**
      * 获取用户详情
      */
@@ -66,6 +114,7 @@ public class UserController {
      */
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "新增", description = "创建用户")
     public Result<User> createUser(@Valid @RequestBody UserCreateReq req) {
         log.info("Creating user: {}", req.getUsername());
         // 验证密码一致性
@@ -81,6 +130,7 @@ public class UserController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "修改", description = "更新用户")
     public Result<Object> updateUser(
             @PathVariable @NotNull Long id,
             @Valid @RequestBody UserUpdateReq updateRequest) {
@@ -94,6 +144,7 @@ public class UserController {
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "删除", description = "删除用户")
     public Result<Object> deleteUser(@PathVariable @NotNull Long id) {
         log.info("Deleting user: {}", id);
         boolean result = userService.deleteUser(id);
@@ -105,6 +156,7 @@ public class UserController {
      */
     @DeleteMapping("/batch")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "删除", description = "批量删除用户")
     public Result<Object> deleteUsers(@RequestBody Long[] ids) {
         log.info("Batch deleting users: {}", ids);
         boolean result = userService.deleteUsers(Arrays.asList(ids));
@@ -116,6 +168,7 @@ public class UserController {
      */
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "修改", description = "启用/禁用用户")
     public Result<Object> toggleUserStatus(
             @PathVariable @NotNull Long id,
             @RequestParam @NotNull Integer status) {
@@ -129,6 +182,7 @@ public class UserController {
      */
     @PutMapping("/{id}/reset-password")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "修改", description = "重置用户密码")
     public Result<Object> resetPassword(@PathVariable @NotNull Long id) {
         log.info("Resetting password for user: {}", id);
         boolean result = userService.resetPassword(id);
@@ -140,6 +194,7 @@ public class UserController {
      */
     @PutMapping("/{id}/roles")
     @PreAuthorize("hasRole('ADMIN')")
+    @AuditLog(module = "用户管理", type = "修改", description = "更新用户角色")
     public Result<Object> updateUserRoles(
             @PathVariable @NotNull Long id,
             @RequestBody Long[] roleIds) {
@@ -0,0 +1,28 @@
+package top.hxll.kimi.dto.req.role;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 角色权限增量修改请求DTO
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+public class RolePermissionPatchReq implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 需要添加的权限ID列表
+     */
+    private List<Long> addPermissionIds;
+
+    /**
+     * 需要移除的权限ID列表
+     */
+    private List<Long> removePermissionIds;
+}
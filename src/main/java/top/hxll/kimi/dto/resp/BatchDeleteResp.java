@@ -0,0 +1,45 @@
+package top.hxll.kimi.dto.resp;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量删除结果DTO
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+public class BatchDeleteResp implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 删除成功的ID
+     */
+    private List<Long> deletedIds = new ArrayList<>();
+
+    /**
+     * 删除失败的ID及原因
+     */
+    private Map<Long, String> failures = new LinkedHashMap<>();
+
+    /**
+     * 记录删除失败的ID
+     */
+    public void fail(Long id, String reason) {
+        failures.put(id, reason);
+    }
+
+    /**
+     * 是否全部删除成功
+     */
+    public boolean isAllDeleted() {
+        return failures.isEmpty();
+    }
+}
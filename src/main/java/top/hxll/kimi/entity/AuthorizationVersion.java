@@ -0,0 +1,35 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 授权版本变更记录实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_authorization_version")
+public class AuthorizationVersion {
+
+    /**
+     * 主键ID，即变更后的授权版本号（各节点共用的自增序列）
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 受影响的用户ID，为空表示全局变更
+     */
+    private Long userId;
+
+    /**
+     * 创建时间（由数据库生成，用于节点间增量同步）
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,50 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * JWT密钥实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_jwt_key")
+public class JwtKey {
+
+    /**
+     * 密钥ID（kid）
+     */
+    @TableId(type = IdType.INPUT)
+    private String keyId;
+
+    /**
+     * 签名算法：HS256/ES256
+     */
+    private String algorithm;
+
+    /**
+     * 签名密钥（加密后Base64编码）
+     */
+    private String privateKey;
+
+    /**
+     * 验签公钥（Base64编码的X.509），对称密钥为空
+     */
+    private String publicKey;
+
+    /**
+     * 开始用于签名的时间（毫秒时间戳），之前只用于验签
+     */
+    private Long activateAt;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
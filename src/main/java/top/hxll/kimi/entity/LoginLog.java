@@ -0,0 +1,65 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录日志实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_login_log")
+public class LoginLog {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 用户ID（用户不存在时为0）
+     */
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 登录时间
+     */
+    private LocalDateTime loginTime;
+
+    /**
+     * 登录IP
+     */
+    private String loginIp;
+
+    /**
+     * 登录地点
+     */
+    private String loginLocation;
+
+    /**
+     * 用户代理
+     */
+    private String userAgent;
+
+    /**
+     * 登录状态：1-成功，0-失败
+     */
+    private Integer loginStatus;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+}
@@ -0,0 +1,100 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作日志实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_operation_log")
+public class OperationLog {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 操作模块
+     */
+    private String operationModule;
+
+    /**
+     * 操作类型
+     */
+    private String operationType;
+
+    /**
+     * 操作描述
+     */
+    private String operationDesc;
+
+    /**
+     * 请求方法
+     */
+    private String requestMethod;
+
+    /**
+     * 请求URL
+     */
+    private String requestUrl;
+
+    /**
+     * 请求参数
+     */
+    private String requestParam;
+
+    /**
+     * 响应结果
+     */
+    private String responseResult;
+
+    /**
+     * 操作IP
+     */
+    private String operationIp;
+
+    /**
+     * 操作地点
+     */
+    private String operationLocation;
+
+    /**
+     * 操作时间
+     */
+    private LocalDateTime operationTime;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long costTime;
+
+    /**
+     * 状态：1-成功，0-失败
+     */
+    private Integer status;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+}
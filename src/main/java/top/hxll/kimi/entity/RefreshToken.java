@@ -0,0 +1,55 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刷新令牌实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_refresh_token")
+public class RefreshToken {
+
+    /**
+     * 令牌ID（jti）
+     */
+    @TableId(type = IdType.INPUT)
+    private String tokenId;
+
+    /**
+     * 令牌族ID
+     */
+    private String familyId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 是否已使用：1-已使用，0-未使用
+     */
+    private Integer used;
+
+    /**
+     * 是否已吊销：1-已吊销，0-正常
+     */
+    private Integer revoked;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,50 @@
+package top.hxll.kimi.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 令牌吊销记录实体类
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Data
+@TableName("sys_token_revocation")
+public class TokenRevocation {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 吊销类型：1-单个令牌，2-用户全部令牌
+     */
+    private Integer revokeType;
+
+    /**
+     * 令牌ID（jti）或用户名
+     */
+    private String revokeKey;
+
+    /**
+     * 用户吊销时间点（毫秒），早于该时间签发的令牌无效
+     */
+    private Long notBefore;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间（由数据库生成，用于节点间增量同步）
+     */
+    private LocalDateTime createTime;
+}
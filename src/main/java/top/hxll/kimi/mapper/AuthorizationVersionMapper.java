@@ -0,0 +1,23 @@
+package top.hxll.kimi.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import top.hxll.kimi.entity.AuthorizationVersion;
+
+import java.util.List;
+
+/**
+ * 授权版本变更记录Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface AuthorizationVersionMapper extends BaseMapper<AuthorizationVersion> {
+
+    /**
+     * 批量插入变更记录（多行INSERT），回填各行的自增主键
+     */
+    int batchInsert(@Param("rows") List<AuthorizationVersion> rows);
+}
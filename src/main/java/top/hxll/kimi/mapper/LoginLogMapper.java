@@ -0,0 +1,23 @@
+package top.hxll.kimi.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import top.hxll.kimi.entity.LoginLog;
+
+import java.util.List;
+
+/**
+ * 登录日志Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface LoginLogMapper extends BaseMapper<LoginLog> {
+
+    /**
+     * 批量插入登录日志（多行INSERT）
+     */
+    int batchInsert(@Param("logs") List<LoginLog> logs);
+}
@@ -0,0 +1,23 @@
+package top.hxll.kimi.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import top.hxll.kimi.entity.OperationLog;
+
+import java.util.List;
+
+/**
+ * 操作日志Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface OperationLogMapper extends BaseMapper<OperationLog> {
+
+    /**
+     * 批量插入操作日志（多行INSERT）
+     */
+    int batchInsert(@Param("logs") List<OperationLog> logs);
+}
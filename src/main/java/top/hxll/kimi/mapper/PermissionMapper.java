@@ -1,10 +1,14 @@
 package top.hxll.kimi.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import top.hxll.kimi.entity.Permission;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,8 +25,23 @@ public interface PermissionMapper extends BaseMapper<Permission> {
      */
     List<Permission> selectPermissionsByRoleId(@Param("roleId") Long roleId);
 
+    /**
+     * 查询权限列表（分页）- 只包含列表展示需要的字段，只返回未删除的权限
+     */
+    IPage<Permission> selectPermissionListPage(Page<Permission> page, @Param("ew") Wrapper<Permission> queryWrapper);
+
     /**
      * 根据父权限ID查询子权限列表
      */
     List<Permission> selectByParentId(@Param("parentId") Long parentId);
+
+    /**
+     * 查询仍有未删除子权限的父权限ID
+     */
+    List<Long> selectParentIdsWithChildren(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * 批量逻辑删除权限
+     */
+    int logicDeleteByIds(@Param("ids") Collection<Long> ids, @Param("updateBy") Long updateBy);
 }
\ No newline at end of file
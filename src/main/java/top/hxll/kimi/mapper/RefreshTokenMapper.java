@@ -0,0 +1,15 @@
+package top.hxll.kimi.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import top.hxll.kimi.entity.RefreshToken;
+
+/**
+ * 刷新令牌Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface RefreshTokenMapper extends BaseMapper<RefreshToken> {
+}
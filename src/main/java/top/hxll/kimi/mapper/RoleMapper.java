@@ -1,10 +1,14 @@
 package top.hxll.kimi.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import top.hxll.kimi.entity.Role;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,8 +25,25 @@ public interface RoleMapper extends BaseMapper<Role> {
      */
     List<Role> selectRolesByUserId(@Param("userId") Long userId);
 
+    /**
+     * 查询角色列表（分页）- 只包含列表展示需要的字段，只返回未删除的角色
+     */
+    IPage<Role> selectRoleListPage(Page<Role> page, @Param("ew") Wrapper<Role> queryWrapper);
+
     /**
      * 根据角色编码查询角色
      */
     Role selectByRoleCode(@Param("roleCode") String roleCode);
+
+    /**
+     * 锁定角色行（SELECT ... FOR UPDATE），用于串行化同一角色的关联数据修改
+     *
+     * @return 角色ID，角色不存在时返回null
+     */
+    Long selectIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 批量逻辑删除角色
+     */
+    int logicDeleteByIds(@Param("ids") Collection<Long> ids, @Param("updateBy") Long updateBy);
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import top.hxll.kimi.entity.RolePermission;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,7 +28,22 @@ public interface RolePermissionMapper extends BaseMapper<RolePermission> {
     int deleteByRoleId(@Param("roleId") Long roleId);
 
     /**
-     * 批量插入角色权限关联
+     * 根据角色ID批量删除角色权限关联
+     */
+    int deleteByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 查询已分配给角色的权限ID（按权限分组）
+     */
+    List<Long> selectAssignedPermissionIds(@Param("permissionIds") Collection<Long> permissionIds);
+
+    /**
+     * 删除角色的指定权限关联
+     */
+    int deleteByRoleIdAndPermissionIds(@Param("roleId") Long roleId, @Param("permissionIds") Collection<Long> permissionIds);
+
+    /**
+     * 批量插入角色权限关联（INSERT IGNORE），已存在的关联不计入返回的行数
      */
     int batchInsert(@Param("rolePermissions") List<RolePermission> rolePermissions);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package top.hxll.kimi.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 表统计信息Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface TableStatsMapper {
+
+    /**
+     * 查询当前库中指定表的统计行数（InnoDB 估算值）
+     *
+     * @return 统计行数，表不存在时返回null
+     */
+    Long selectEstimatedRows(@Param("tableName") String tableName);
+}
@@ -0,0 +1,15 @@
+package top.hxll.kimi.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import top.hxll.kimi.entity.TokenRevocation;
+
+/**
+ * 令牌吊销记录Mapper接口
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+}
@@ -20,18 +20,21 @@ import java.util.List;
 public interface UserMapper extends BaseMapper<User> {
 
     /**
-     * 根据用户名查询用户（包含角色和权限）
+     * 查询用户基本信息（分页）- 只包含列表展示需要的字段
+     * 排除了敏感字段：password, last_login_ip, create_by, update_by, deleted
+     * 只返回未删除的用户，wrapper 中无需再加 deleted 条件
      */
-    User selectUserWithRolesAndPermissions(@Param("username") String username);
+    IPage<User> selectUserBasicPage(Page<User> page, @Param("ew") Wrapper<User> queryWrapper);
 
     /**
-     * 根据用户ID查询权限编码列表
+     * 批量更新最后登录时间和IP（UPDATE ... CASE），只使用 id、lastLoginTime、lastLoginIp
      */
-    List<String> selectPermissionsByUserId(@Param("userId") Long userId);
+    int batchUpdateLastLogin(@Param("users") List<User> users);
 
     /**
-     * 查询用户基本信息（分页）- 只包含列表展示需要的字段
-     * 排除了敏感字段：password, last_login_ip, create_by, update_by, deleted
+     * 锁定用户行（SELECT ... FOR UPDATE），用于串行化同一用户的关联数据修改
+     *
+     * @return 用户ID，用户不存在时返回null
      */
-    IPage<User> selectUserBasicPage(Page<User> page, @Param("ew") Wrapper<User> queryWrapper);
+    Long selectIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
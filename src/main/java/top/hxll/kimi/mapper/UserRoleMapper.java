@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import top.hxll.kimi.entity.UserRole;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,4 +21,29 @@ public interface UserRoleMapper extends BaseMapper<UserRole> {
      * 批量插入用户角色关联
      */
     int batchInsert(@Param("userRoles") List<UserRole> userRoles);
+
+    /**
+     * 查询用户的角色ID列表
+     */
+    List<Long> selectRoleIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * 删除用户的指定角色关联
+     */
+    int deleteByUserIdAndRoleIds(@Param("userId") Long userId, @Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 查询持有指定角色的用户ID列表
+     */
+    List<Long> selectUserIdsByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 查询已分配给用户的角色ID（按角色分组）
+     */
+    List<Long> selectAssignedRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 查询通过角色间接持有指定权限的用户ID列表
+     */
+    List<Long> selectUserIdsByPermissionIds(@Param("permissionIds") Collection<Long> permissionIds);
 }
\ No newline at end of file
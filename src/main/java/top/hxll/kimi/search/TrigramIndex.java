@@ -0,0 +1,263 @@
+package top.hxll.kimi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存三元组倒排索引
+ * 每个文档由若干文本字段组成，按字段的连续三个字符建立倒排表（升序ID数组）。
+ * 查询语义与 LIKE '%kw%' 一致（不区分大小写）：关键词的三元组求交得到候选，再逐个校验子串；
+ * 少于三个字符的关键词直接扫描全部文档
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class TrigramIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 文档ID -> 小写字段值
+     */
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    /**
+     * 三元组 -> 包含该三元组的文档ID
+     */
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * 添加或替换文档
+     * 替换时只增删新旧字段之间有差异的三元组，高频三元组的大倒排表不受影响
+     */
+    public void put(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = fields[i] == null ? "" : fields[i].toLowerCase(Locale.ROOT);
+        }
+        long[] added = trigramsOf(normalized);
+
+        lock.writeLock().lock();
+        try {
+            String[] old = documents.put(id, normalized);
+            long[] removed = old == null ? new long[0] : trigramsOf(old);
+            int i = 0;
+            int j = 0;
+            while (i < added.length || j < removed.length) {
+                if (j == removed.length || (i < added.length && added[i] < removed[j])) {
+                    postings.computeIfAbsent(added[i++], k -> new Postings()).add(id);
+                } else if (i == added.length || removed[j] < added[i]) {
+                    removePosting(removed[j++], id);
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文档
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询任一字段包含关键词的文档ID（升序）
+     *
+     * @param limit 最多返回的数量
+     * @return 匹配的文档ID；匹配数超过limit时返回null
+     */
+    public long[] search(String keyword, int limit) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                return collect(documents.keySet(), needle, limit);
+            }
+
+            // 从最短的倒排表开始，用其余倒排表过滤候选
+            List<Postings> lists = new ArrayList<>();
+            for (long trigram : trigramsOf(new String[]{needle})) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            Postings smallest = lists.get(0);
+            List<Postings> others = lists.subList(1, lists.size());
+
+            return collect(() -> new Iterator<Long>() {
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    for (int i = from; i < smallest.size; i++) {
+                        long id = smallest.ids[i];
+                        if (others.stream().allMatch(list -> list.contains(id))) {
+                            return i;
+                        }
+                    }
+                    return smallest.size;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < smallest.size;
+                }
+
+                @Override
+                public Long next() {
+                    long id = smallest.ids[next];
+                    next = advance(next + 1);
+                    return id;
+                }
+            }, needle, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 校验候选文档是否包含关键词，超过limit时立即返回null
+     */
+    private long[] collect(Iterable<Long> ids, String needle, int limit) {
+        long[] result = new long[Math.min(limit, 16)];
+        int count = 0;
+        for (Long id : ids) {
+            String[] fields = documents.get(id);
+            if (fields != null && matches(fields, needle)) {
+                if (count == limit) {
+                    return null;
+                }
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(limit, count * 2));
+                }
+                result[count++] = id;
+            }
+        }
+        long[] matched = Arrays.copyOf(result, count);
+        Arrays.sort(matched);
+        return matched;
+    }
+
+    private static boolean matches(String[] fields, String needle) {
+        for (String field : fields) {
+            if (field.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeUnlocked(long id) {
+        String[] old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (long trigram : trigramsOf(old)) {
+            removePosting(trigram, id);
+        }
+    }
+
+    private void removePosting(long trigram, long id) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    /**
+     * 所有字段的三元组，升序去重
+     */
+    private static long[] trigramsOf(String[] fields) {
+        int total = 0;
+        for (String field : fields) {
+            total += Math.max(0, field.length() - 2);
+        }
+        long[] trigrams = new long[total];
+        int count = 0;
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                long packed = ((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2);
+                // 乘奇数是64位上的双射，打散高低位，避免 Long.hashCode 在ASCII三元组上大量冲突
+                trigrams[count++] = packed * 0x9E3779B97F4A7C15L;
+            }
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * 倒排表：升序的文档ID数组
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            // 重建时按ID升序写入，直接追加
+            int index = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
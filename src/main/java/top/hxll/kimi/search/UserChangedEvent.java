@@ -0,0 +1,32 @@
+package top.hxll.kimi.search;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 用户资料变更事件
+ * 用户新增、删除或用户名/昵称/邮箱/手机号变更时发布，事务提交后同步搜索索引
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public class UserChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发生变更的用户ID
+     */
+    private final Set<Long> userIds;
+
+    public UserChangedEvent(Object source, Collection<Long> userIds) {
+        super(source);
+        this.userIds = Collections.unmodifiableSet(new LinkedHashSet<>(userIds));
+    }
+}
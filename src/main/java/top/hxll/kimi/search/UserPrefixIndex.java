@@ -0,0 +1,449 @@
+package top.hxll.kimi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户名/昵称前缀索引
+ * 主体为按小写key排序的并列数组（key、用户ID、用户名、昵称），前缀查询二分定位后顺序读取；
+ * 增量变更写入有序的增量表，并以用户ID标记主体中失效的条目，增量累积到一定规模后合并回主体数组。
+ * 合并在锁外基于快照进行（可交给指定线程），完成后在写锁内替换数组并保留合并期间的新变更
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class UserPrefixIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry, String>comparing(e -> e.key)
+            .thenComparingLong(e -> e.id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] keys;
+
+    private long[] ids;
+
+    private String[] usernames;
+
+    private String[] nicknames;
+
+    /**
+     * 增量条目，与主体数组同样按 key、用户ID 排序
+     */
+    private final TreeSet<Entry> delta = new TreeSet<>(ORDER);
+
+    /**
+     * 用户ID -> 该用户在增量表中的条目
+     */
+    private final Map<Long, List<Entry>> deltaEntries = new HashMap<>();
+
+    /**
+     * 主体数组中已失效（更新或删除）的用户ID
+     */
+    private Set<Long> tombstones = new HashSet<>();
+
+    /**
+     * 合并期间新增的失效标记，合并完成后替换tombstones；未在合并时为null
+     */
+    private Set<Long> tombstonesSinceCompaction;
+
+    private final Executor compactionExecutor;
+
+    private UserPrefixIndex(List<Entry> entries, Executor compactionExecutor) {
+        this.compactionExecutor = compactionExecutor;
+        load(entries);
+    }
+
+    /**
+     * 前缀匹配用户名或昵称，按匹配到的key（相同时按用户ID）排序返回前limit个用户（同一用户只返回一次）
+     */
+    public List<Suggestion> search(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<Suggestion> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            int i = lowerBound(from);
+            Iterator<Entry> pending = delta.tailSet(new Entry(from, Long.MIN_VALUE, null, null), true).iterator();
+            Entry next = pending.hasNext() ? pending.next() : null;
+
+            // 归并主体数组和增量表两个有序序列
+            while (result.size() < limit) {
+                boolean baseMatches = i < keys.length && keys[i].startsWith(from);
+                boolean deltaMatches = next != null && next.key.startsWith(from);
+                if (!baseMatches && !deltaMatches) {
+                    break;
+                }
+                if (deltaMatches && (!baseMatches || compare(next, keys[i], ids[i]) <= 0)) {
+                    if (seen.add(next.id)) {
+                        result.add(new Suggestion(next.id, next.username, next.nickname));
+                    }
+                    next = pending.hasNext() ? pending.next() : null;
+                } else {
+                    if (!tombstones.contains(ids[i]) && seen.add(ids[i])) {
+                        result.add(new Suggestion(ids[i], usernames[i], nicknames[i]));
+                    }
+                    i++;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 添加或替换用户
+     */
+    public void put(long id, String username, String nickname) {
+        Compaction compaction;
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            List<Entry> added = entriesOf(id, username, nickname);
+            delta.addAll(added);
+            deltaEntries.put(id, added);
+            compaction = startCompactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        submit(compaction);
+    }
+
+    /**
+     * 移除用户
+     */
+    public void remove(long id) {
+        Compaction compaction;
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            compaction = startCompactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        submit(compaction);
+    }
+
+    /**
+     * 主体数组中的条目数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keys.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(long id) {
+        tombstones.add(id);
+        if (tombstonesSinceCompaction != null) {
+            tombstonesSinceCompaction.add(id);
+        }
+        List<Entry> old = deltaEntries.remove(id);
+        if (old != null) {
+            old.forEach(delta::remove);
+        }
+    }
+
+    /**
+     * 增量或失效标记超过主体的1/16时开始合并，保证查询时跳过的条目有限；需持有写锁
+     *
+     * @return 合并快照，无需合并或已在合并时返回null
+     */
+    private Compaction startCompactionIfNeeded() {
+        if (tombstonesSinceCompaction != null
+                || delta.size() + tombstones.size() <= Math.max(1024, keys.length >> 4)) {
+            return null;
+        }
+        tombstonesSinceCompaction = new HashSet<>();
+        return new Compaction(keys, ids, usernames, nicknames, new ArrayList<>(delta),
+                new HashMap<>(deltaEntries), new HashSet<>(tombstones));
+    }
+
+    private void submit(Compaction compaction) {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compactionExecutor.execute(() -> compact(compaction));
+        } catch (RejectedExecutionException e) {
+            compact(compaction);
+        }
+    }
+
+    /**
+     * 在锁外归并快照中的主体数组和增量表，再在写锁内替换；快照之后的变更保留在增量表和失效标记中
+     */
+    private void compact(Compaction compaction) {
+        boolean merged = false;
+        try {
+            compaction.merge();
+            merged = true;
+        } finally {
+            Compaction next;
+            lock.writeLock().lock();
+            try {
+                if (merged) {
+                    swap(compaction);
+                } else {
+                    tombstonesSinceCompaction = null;
+                }
+                next = merged ? startCompactionIfNeeded() : null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            submit(next);
+        }
+    }
+
+    private void swap(Compaction compaction) {
+        keys = compaction.mergedKeys;
+        ids = compaction.mergedIds;
+        usernames = compaction.mergedUsernames;
+        nicknames = compaction.mergedNicknames;
+        // 快照之后未再变更的用户，其增量条目已进入主体数组；再次变更的用户由合并期间的失效标记屏蔽主体中的旧条目
+        for (Map.Entry<Long, List<Entry>> merged : compaction.deltaEntries.entrySet()) {
+            if (deltaEntries.get(merged.getKey()) == merged.getValue()) {
+                deltaEntries.remove(merged.getKey());
+                merged.getValue().forEach(delta::remove);
+            }
+        }
+        tombstones = tombstonesSinceCompaction;
+        tombstonesSinceCompaction = null;
+    }
+
+    private void load(List<Entry> entries) {
+        entries.sort(ORDER);
+        int n = entries.size();
+        keys = new String[n];
+        ids = new long[n];
+        usernames = new String[n];
+        nicknames = new String[n];
+        for (int i = 0; i < n; i++) {
+            Entry entry = entries.get(i);
+            keys[i] = entry.key;
+            ids[i] = entry.id;
+            usernames[i] = entry.username;
+            nicknames[i] = entry.nickname;
+        }
+    }
+
+    private static int compare(String key, long id, String otherKey, long otherId) {
+        int order = key.compareTo(otherKey);
+        return order != 0 ? order : Long.compare(id, otherId);
+    }
+
+    private static int compare(Entry entry, String key, long id) {
+        int order = entry.key.compareTo(key);
+        return order != 0 ? order : Long.compare(entry.id, id);
+    }
+
+    /**
+     * 第一个不小于key的下标；重复的key（如常见昵称）可能有大量条目，不能从命中位置逐个回退
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<Entry> entriesOf(long id, String username, String nickname) {
+        List<Entry> entries = new ArrayList<>(2);
+        if (username != null && !username.isEmpty()) {
+            entries.add(new Entry(lowerCase(username), id, username, nickname));
+        }
+        if (nickname != null && !nickname.isEmpty()) {
+            String key = lowerCase(nickname);
+            if (entries.isEmpty() || !entries.get(0).key.equals(key)) {
+                entries.add(new Entry(key, id, username, nickname));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 已是小写时复用原字符串，避免重复占用内存
+     */
+    private static String lowerCase(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        return lower.equals(value) ? value : lower;
+    }
+
+    /**
+     * 构建器，批量添加后一次排序
+     */
+    public static class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Executor compactionExecutor = Runnable::run;
+
+        public Builder add(long id, String username, String nickname) {
+            entries.addAll(entriesOf(id, username, nickname));
+            return this;
+        }
+
+        /**
+         * 合并增量使用的线程，默认在触发合并的调用线程上（锁外）执行
+         */
+        public Builder compactOn(Executor executor) {
+            this.compactionExecutor = executor;
+            return this;
+        }
+
+        public UserPrefixIndex build() {
+            return new UserPrefixIndex(entries, compactionExecutor);
+        }
+    }
+
+    /**
+     * 合并快照：开始合并时的主体数组、增量表和失效标记，以及归并结果
+     */
+    private static final class Compaction {
+
+        final String[] keys;
+
+        final long[] ids;
+
+        final String[] usernames;
+
+        final String[] nicknames;
+
+        final List<Entry> delta;
+
+        final Map<Long, List<Entry>> deltaEntries;
+
+        final Set<Long> tombstones;
+
+        String[] mergedKeys;
+
+        long[] mergedIds;
+
+        String[] mergedUsernames;
+
+        String[] mergedNicknames;
+
+        Compaction(String[] keys, long[] ids, String[] usernames, String[] nicknames, List<Entry> delta,
+                   Map<Long, List<Entry>> deltaEntries, Set<Long> tombstones) {
+            this.keys = keys;
+            this.ids = ids;
+            this.usernames = usernames;
+            this.nicknames = nicknames;
+            this.delta = delta;
+            this.deltaEntries = deltaEntries;
+            this.tombstones = tombstones;
+        }
+
+        /**
+         * 两个序列均已有序，线性归并，无需重新排序
+         */
+        void merge() {
+            int capacity = keys.length + delta.size();
+            String[] outKeys = new String[capacity];
+            long[] outIds = new long[capacity];
+            String[] outUsernames = new String[capacity];
+            String[] outNicknames = new String[capacity];
+            int n = 0;
+            int i = 0;
+            int d = 0;
+            while (i < keys.length || d < delta.size()) {
+                if (i < keys.length && tombstones.contains(ids[i])) {
+                    i++;
+                    continue;
+                }
+                if (d < delta.size() && (i >= keys.length
+                        || compare(delta.get(d).key, delta.get(d).id, keys[i], ids[i]) <= 0)) {
+                    Entry entry = delta.get(d++);
+                    outKeys[n] = entry.key;
+                    outIds[n] = entry.id;
+                    outUsernames[n] = entry.username;
+                    outNicknames[n] = entry.nickname;
+                } else {
+                    outKeys[n] = keys[i];
+                    outIds[n] = ids[i];
+                    outUsernames[n] = usernames[i];
+                    outNicknames[n] = nicknames[i];
+                    i++;
+                }
+                n++;
+            }
+            mergedKeys = Arrays.copyOf(outKeys, n);
+            mergedIds = Arrays.copyOf(outIds, n);
+            mergedUsernames = Arrays.copyOf(outUsernames, n);
+            mergedNicknames = Arrays.copyOf(outNicknames, n);
+        }
+    }
+
+    /**
+     * 前缀匹配结果
+     */
+    public static final class Suggestion {
+
+        private final long id;
+
+        private final String username;
+
+        private final String nickname;
+
+        Suggestion(long id, String username, String nickname) {
+            this.id = id;
+            this.username = username;
+            this.nickname = nickname;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getNickname() {
+            return nickname;
+        }
+    }
+
+    private static final class Entry {
+
+        final String key;
+
+        final long id;
+
+        final String username;
+
+        final String nickname;
+
+        Entry(String key, long id, String username, String nickname) {
+            this.key = key;
+            this.id = id;
+            this.username = username;
+            this.nickname = nickname;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package top.hxll.kimi.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import top.hxll.kimi.entity.User;
+import top.hxll.kimi.mapper.UserMapper;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 用户搜索索引
+ * 对用户名、昵称、邮箱、手机号建立内存三元组索引，关键词查询返回用户ID，再按主键回表，替代 LIKE '%kw%' 全表扫描；
+ * 同时对用户名、昵称建立前缀索引，用于输入联想。
+ * 首次查询时（或启动完成后，按配置）在后台从数据库构建，构建完成前查询返回null由调用方回退到数据库查询；
+ * 用户变更的事务提交后按ID从数据库刷新对应文档，并定时全量重建以同步其他节点的变更。
+ * 构建在索引专用的单线程中执行，不占用定时任务线程
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSearchIndex {
+
+    private final UserMapper userMapper;
+
+    @Value("${search.user-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.user-index.warm-up:false}")
+    private boolean warmUp;
+
+    @Value("${search.user-index.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${search.user-index.max-results:1000}")
+    private int maxResults;
+
+    /**
+     * 定时重建期间是否保留旧索引；关闭时先丢弃旧索引，构建期间查询回退到数据库，内存峰值约为一份索引
+     */
+    @Value("${search.user-index.keep-during-rebuild:true}")
+    private boolean keepDuringRebuild;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Indexes index;
+
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    /**
+     * 重建期间发生变更的用户ID，新索引替换后重新刷新
+     */
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 查询任一索引字段包含关键词的用户ID
+     *
+     * @return 匹配的用户ID（升序）；索引未就绪或匹配数超过上限时返回null，调用方应回退到数据库查询
+     */
+    public List<Long> search(String keyword) {
+        if (!enabled) {
+            return null;
+        }
+        Indexes current = index;
+        if (current == null) {
+            rebuildAsync();
+            return null;
+        }
+        long[] ids = current.text.search(keyword.trim(), maxResults);
+        if (ids == null) {
+            return null;
+        }
+        List<Long> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 前缀匹配用户名或昵称
+     *
+     * @return 最多limit个匹配的用户；索引未就绪时返回null，调用方应回退到数据库查询
+     */
+    public List<UserPrefixIndex.Suggestion> suggest(String prefix, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        Indexes current = index;
+        if (current == null) {
+            rebuildAsync();
+            return null;
+        }
+        return current.prefix.search(prefix.trim(), limit);
+    }
+
+    /**
+     * 启动完成后预先构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled && warmUp) {
+            rebuildAsync();
+        }
+    }
+
+    /**
+     * 用户变更事务提交后刷新对应文档
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (index == null && !building.get()) {
+            return;
+        }
+        if (building.get()) {
+            changedDuringBuild.addAll(event.getUserIds());
+        }
+        try {
+            refresh(event.getUserIds());
+        } catch (Exception e) {
+            // 丢弃索引，下次查询时重新构建
+            log.warn("Failed to refresh user search index: {}", e.getMessage());
+            index = null;
+        }
+    }
+
+    /**
+     * 定时全量重建，同步其他节点上的变更；构建耗时较长，交给索引线程执行
+     */
+    @Scheduled(fixedDelayString = "${search.user-index.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (index != null && !building.get()) {
+            if (!keepDuringRebuild) {
+                index = null;
+            }
+            rebuildAsync();
+        }
+    }
+
+    /**
+     * 在索引线程重建索引，已有重建在进行时直接返回
+     */
+    public void rebuildAsync() {
+        // 提交时即标记为重建中，避免并发查询重复提交
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::build);
+        } catch (RejectedExecutionException e) {
+            building.set(false);
+            log.debug("User search index executor is shut down");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 从数据库全量构建新索引并替换，构建期间查询继续使用旧索引
+     */
+    public void rebuild() {
+        if (building.compareAndSet(false, true)) {
+            build();
+        }
+    }
+
+    /**
+     * 构建并替换索引，调用前需已将building置为true
+     */
+    private void build() {
+        try {
+            long start = System.currentTimeMillis();
+            TrigramIndex text = new TrigramIndex();
+            // 前缀索引的增量合并交给索引线程，不阻塞触发变更的请求线程
+            UserPrefixIndex.Builder prefix = new UserPrefixIndex.Builder().compactOn(executor);
+            long lastId = 0;
+            List<User> users;
+            do {
+                users = userMapper.selectPage(new Page<>(1, batchSize, false), columns()
+                        .gt(User::getId, lastId)
+                        .orderByAsc(User::getId)).getRecords();
+                for (User user : users) {
+                    text.put(user.getId(), user.getUsername(), user.getNickname(), user.getEmail(), user.getPhone());
+                    prefix.add(user.getId(), user.getUsername(), user.getNickname());
+                    lastId = user.getId();
+                }
+            } while (users.size() == batchSize);
+
+            index = new Indexes(text, prefix.build());
+            log.info("User search index built: {} users in {} ms", text.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 构建期间的变更已同步到旧索引（若有）
+            changedDuringBuild.clear();
+            log.warn("Failed to build user search index: {}", e.getMessage());
+        } finally {
+            building.set(false);
+        }
+
+        // 补上构建期间提交的变更
+        if (index != null && !changedDuringBuild.isEmpty()) {
+            Set<Long> changed = new HashSet<>(changedDuringBuild);
+            changedDuringBuild.removeAll(changed);
+            try {
+                refresh(changed);
+            } catch (Exception e) {
+                log.warn("Failed to refresh user search index: {}", e.getMessage());
+                index = null;
+            }
+        }
+    }
+
+    /**
+     * 按ID从数据库重新读取用户并更新文档，已删除的用户从索引移除
+     */
+    private void refresh(Collection<Long> userIds) {
+        Indexes current = index;
+        if (current == null || userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(userIds);
+        for (User user : userMapper.selectList(columns().in(User::getId, userIds))) {
+            current.text.put(user.getId(), user.getUsername(), user.getNickname(), user.getEmail(), user.getPhone());
+            current.prefix.put(user.getId(), user.getUsername(), user.getNickname());
+            missing.remove(user.getId());
+        }
+        for (Long id : missing) {
+            current.text.remove(id);
+            current.prefix.remove(id);
+        }
+    }
+
+    private static LambdaQueryWrapper<User> columns() {
+        return new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getUsername, User::getNickname, User::getEmail, User::getPhone);
+    }
+
+    /**
+     * 同一次构建得到的关键词索引和前缀索引，整体替换
+     */
+    private static final class Indexes {
+
+        final TrigramIndex text;
+
+        final UserPrefixIndex prefix;
+
+        Indexes(TrigramIndex text, UserPrefixIndex prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package top.hxll.kimi.security.authority;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限目录
+ * 为所有角色（ROLE_编码）和权限编码按ID顺序分配稠密下标，目录版本为内容摘要，相同内容在各节点上版本一致。
+ * 目录由角色权限目录快照派生，快照替换后在下次使用时重建；内容变更后保留最近几个版本，已签发令牌仍可按其版本解码
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthorityCatalog {
+
+    /**
+     * 保留的历史版本数量
+     */
+    private static final int MAX_VERSIONS = 8;
+
+    /**
+     * 遇到未知版本或编码时重新加载的最小间隔（毫秒）
+     */
+    private static final long RELOAD_INTERVAL = 10000L;
+
+    private final RbacCatalog rbacCatalog;
+
+    private volatile Snapshot current;
+
+    private volatile long lastLoadTime;
+
+    private final Map<String, Snapshot> versions = new LinkedHashMap<String, Snapshot>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+            return size() > MAX_VERSIONS;
+        }
+    };
+
+    /**
+     * 将权限集合转换为位图集合
+     *
+     * @return 存在目录中没有的权限时返回null
+     */
+    public AuthoritySet toAuthoritySet(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities instanceof AuthoritySet) {
+            return (AuthoritySet) authorities;
+        }
+        Snapshot snapshot = getSnapshot();
+        AuthoritySet result = snapshot.toAuthoritySet(authorities);
+        if (result == null && reloadIfAllowed()) {
+            result = getSnapshot().toAuthoritySet(authorities);
+        }
+        return result;
+    }
+
+    /**
+     * 按目录版本解码位图
+     *
+     * @return 版本未知或编码无效时返回null
+     */
+    public AuthoritySet decode(String version, String encoded) {
+        Snapshot snapshot = findSnapshot(version);
+        if (snapshot == null && reloadIfAllowed()) {
+            snapshot = findSnapshot(version);
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+            return bits.length() <= snapshot.size() ? new AuthoritySet(snapshot, bits) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid compact authorities: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Snapshot getSnapshot() {
+        RbacSnapshot source = rbacCatalog.getSnapshot();
+        Snapshot snapshot = current;
+        if (snapshot == null || snapshot.source != source) {
+            snapshot = rebuild(source);
+        }
+        return snapshot;
+    }
+
+    private Snapshot findSnapshot(String version) {
+        Snapshot snapshot = getSnapshot();
+        if (snapshot.version.equals(version)) {
+            return snapshot;
+        }
+        synchronized (versions) {
+            return versions.get(version);
+        }
+    }
+
+    private boolean reloadIfAllowed() {
+        if (System.currentTimeMillis() - lastLoadTime < RELOAD_INTERVAL) {
+            return false;
+        }
+        rebuild(rbacCatalog.reload());
+        return true;
+    }
+
+    private synchronized Snapshot rebuild(RbacSnapshot source) {
+        Snapshot existing = current;
+        if (existing != null && existing.source == source) {
+            return existing;
+        }
+
+        List<Role> roles = new ArrayList<>(source.getRoles());
+        roles.sort(Comparator.comparing(Role::getId));
+        List<Permission> permissions = new ArrayList<>(source.getPermissions());
+        permissions.sort(Comparator.comparing(Permission::getId));
+
+        List<String> authorities = new ArrayList<>(roles.size() + permissions.size());
+        for (Role role : roles) {
+            authorities.add("ROLE_" + role.getRoleCode().toUpperCase());
+        }
+        for (Permission permission : permissions) {
+            authorities.add(permission.getPermissionCode());
+        }
+
+        Snapshot snapshot = new Snapshot(authorities, source);
+        synchronized (versions) {
+            versions.put(snapshot.version, snapshot);
+        }
+        current = snapshot;
+        lastLoadTime = System.currentTimeMillis();
+        log.debug("Authority catalog built: version={}, size={}", snapshot.version, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * 目录快照
+     */
+    static final class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String version;
+
+        private final GrantedAuthority[] authorities;
+
+        private final Map<String, Integer> indexes;
+
+        /**
+         * 派生来源，来源快照被替换后需要重建
+         */
+        private final transient RbacSnapshot source;
+
+        Snapshot(List<String> codes, RbacSnapshot source) {
+            Map<String, Integer> indexMap = new HashMap<>(codes.size() * 2);
+            List<GrantedAuthority> list = new ArrayList<>(codes.size());
+            for (String code : codes) {
+                if (code != null && !indexMap.containsKey(code)) {
+                    indexMap.put(code, list.size());
+                    list.add(new SimpleGrantedAuthority(code));
+                }
+            }
+            this.indexes = indexMap;
+            this.authorities = list.toArray(new GrantedAuthority[0]);
+            this.version = digest(list);
+            this.source = source;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        int size() {
+            return authorities.length;
+        }
+
+        int indexOf(String authority) {
+            Integer index = indexes.get(authority);
+            return index != null ? index : -1;
+        }
+
+        GrantedAuthority authorityAt(int index) {
+            return authorities[index];
+        }
+
+        AuthoritySet toAuthoritySet(Collection<? extends GrantedAuthority> granted) {
+            BitSet bits = new BitSet(authorities.length);
+            for (GrantedAuthority authority : granted) {
+                int index = indexOf(authority.getAuthority());
+                if (index < 0) {
+                    return null;
+                }
+                bits.set(index);
+            }
+            return new AuthoritySet(this, bits);
+        }
+
+        private static String digest(List<GrantedAuthority> authorities) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                for (GrantedAuthority authority : authorities) {
+                    md.update(authority.getAuthority().getBytes(StandardCharsets.UTF_8));
+                    md.update((byte) 0);
+                }
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(md.digest()).substring(0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
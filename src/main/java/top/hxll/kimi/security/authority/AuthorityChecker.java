@@ -0,0 +1,53 @@
+package top.hxll.kimi.security.authority;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * 权限判断工具
+ * 位图权限集合按位判断，其他权限集合按顺序比较编码，判断过程不创建临时对象
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public final class AuthorityChecker {
+
+    private AuthorityChecker() {
+    }
+
+    /**
+     * 获取认证主体的权限集合
+     * 认证令牌会把权限复制到新的列表中，位图集合保留在主体的用户详情上
+     */
+    public static Collection<? extends GrantedAuthority> authoritiesOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserDetails) {
+            Collection<? extends GrantedAuthority> authorities = ((UserDetails) principal).getAuthorities();
+            if (authorities instanceof AuthoritySet) {
+                return authorities;
+            }
+        }
+        return authentication.getAuthorities();
+    }
+
+    /**
+     * 权限集合是否包含指定的角色或权限编码
+     */
+    public static boolean contains(Collection<? extends GrantedAuthority> authorities, String authority) {
+        if (authority == null || authorities == null) {
+            return false;
+        }
+        if (authorities instanceof AuthoritySet) {
+            return ((AuthoritySet) authorities).containsAuthority(authority);
+        }
+        for (GrantedAuthority granted : authorities) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package top.hxll.kimi.security.authority;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于位图的不可变权限集合
+ * 每一位对应权限目录中的一个角色或权限编码，包含判断为一次位查询，遍历时复用目录中的权限对象
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AuthorityCatalog.Snapshot catalog;
+
+    private final BitSet bits;
+
+    private final int size;
+
+    AuthoritySet(AuthorityCatalog.Snapshot catalog, BitSet bits) {
+        this.catalog = catalog;
+        this.bits = bits;
+        this.size = bits.cardinality();
+    }
+
+    /**
+     * 权限目录版本
+     */
+    public String getVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * 编码为base64url字符串（位图的小端字节序列）
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    /**
+     * 是否包含指定的角色或权限编码
+     */
+    public boolean containsAuthority(String authority) {
+        int index = catalog.indexOf(authority);
+        return index >= 0 && bits.get(index);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority && containsAuthority(((GrantedAuthority) o).getAuthority());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<GrantedAuthority>() {
+
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                GrantedAuthority authority = catalog.authorityAt(next);
+                next = bits.nextSetBit(next + 1);
+                return authority;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package top.hxll.kimi.security.authority;
+
+import lombok.Getter;
+
+/**
+ * 授权版本变更
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public final class AuthorizationVersionChange {
+
+    /**
+     * 变更后的授权版本
+     */
+    private final long version;
+
+    /**
+     * 受影响的用户ID，为null表示全局变更
+     */
+    private final Long userId;
+
+    /**
+     * 变更时间（毫秒时间戳）
+     */
+    private final long changedAt;
+
+    public AuthorizationVersionChange(long version, Long userId, long changedAt) {
+        this.version = version;
+        this.userId = userId;
+        this.changedAt = changedAt;
+    }
+
+    public boolean isGlobal() {
+        return userId == null;
+    }
+}
@@ -0,0 +1,207 @@
+package top.hxll.kimi.security.authority;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 授权版本
+ * 单调递增的版本号，令牌签发时记录当时的版本；之后发生全局或该用户的授权变更时版本前移，
+ * 令牌中的权限不再可信，需要重新加载用户详情。
+ * 版本号由授权版本存储分配，各节点定时拉取其他节点写入的变更；只有共享存储下的版本才能跨节点比较。
+ * 拉取到其他节点的变更时先重新加载角色权限目录再推进版本，随后按新版本重新加载的用户详情使用最新的角色权限
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthorizationVersionService {
+
+    /**
+     * 单次按用户推进的最大用户数，超过时改为推进全局版本
+     */
+    private static final int MAX_USER_BUMP = 1000;
+
+    private final AuthorizationVersionStore versionStore;
+
+    private final RbacCatalog rbacCatalog;
+
+    /**
+     * 已知的最大版本
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 全局版本：早于该版本签发的令牌均不可信
+     */
+    private volatile long globalVersion;
+
+    /**
+     * 用户ID -> 该用户最近一次授权变更
+     */
+    private final Map<Long, UserVersion> userVersions = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration:86400}")
+    private int jwtExpirationSeconds;
+
+    @PostConstruct
+    public void init() {
+        sync();
+    }
+
+    /**
+     * 当前版本，签发令牌或加载用户详情前读取
+     */
+    public long currentVersion() {
+        return sequence.get();
+    }
+
+    /**
+     * 令牌记录的版本之后是否没有发生影响该用户的授权变更
+     */
+    public boolean isCurrent(Long userId, long version) {
+        if (version < globalVersion) {
+            return false;
+        }
+        UserVersion userVersion = userId != null ? userVersions.get(userId) : null;
+        return userVersion == null || userVersion.version <= version;
+    }
+
+    /**
+     * 版本是否由多个节点共享，非共享时其他节点的授权变更不会使本节点的版本前移
+     */
+    public boolean isShared() {
+        return versionStore.isShared();
+    }
+
+    /**
+     * 全局授权变更，所有已签发令牌中的权限失效
+     */
+    public void bumpAll() {
+        bump(null);
+    }
+
+    /**
+     * 指定用户的授权变更
+     */
+    public void bumpUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        bump(userIds.size() > MAX_USER_BUMP ? null : userIds);
+    }
+
+    /**
+     * 从存储拉取其他节点写入的变更
+     */
+    @Scheduled(fixedDelayString = "${jwt.authorization-version.sync-interval:10000}")
+    public void sync() {
+        try {
+            long since = System.currentTimeMillis() - jwtExpirationSeconds * 1000L;
+            List<AuthorizationVersionChange> changes = versionStore.pollChanges(since);
+            if (hasUnseen(changes)) {
+                // 其他节点的角色权限变更需要先同步到本节点的目录
+                rbacCatalog.refresh();
+            }
+            apply(changes);
+        } catch (Exception e) {
+            log.warn("Failed to sync authorization versions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理早于访问令牌有效期的用户版本，此前签发的令牌均已过期
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:300000}")
+    public void purgeExpired() {
+        long threshold = System.currentTimeMillis() - jwtExpirationSeconds * 1000L;
+        userVersions.values().removeIf(userVersion -> userVersion.changedAt < threshold);
+        try {
+            versionStore.deleteExpired(threshold);
+        } catch (Exception e) {
+            log.warn("Failed to delete expired authorization versions: {}", e.getMessage());
+        }
+    }
+
+    private void bump(Collection<Long> userIds) {
+        List<AuthorizationVersionChange> changes;
+        try {
+            changes = versionStore.bump(userIds);
+        } catch (RuntimeException e) {
+            // 变更无法写入存储时，本节点不再信任任何已签发令牌中的权限，直到拉取到更新的版本
+            globalVersion = Math.max(globalVersion, sequence.get() + 1);
+            log.error("Failed to store authorization version change, token authorities distrusted locally: {}",
+                    e.getMessage());
+            return;
+        }
+        apply(changes);
+        log.debug("Authorization version bumped to {} for {}", sequence.get(), userIds != null ? userIds : "all users");
+    }
+
+    /**
+     * 是否包含本节点尚未应用的变更（本节点写入的变更在写入时已应用）
+     */
+    private boolean hasUnseen(List<AuthorizationVersionChange> changes) {
+        long globalSeen = globalVersion;
+        for (AuthorizationVersionChange change : changes) {
+            if (change.isGlobal()) {
+                if (change.getVersion() > globalSeen) {
+                    return true;
+                }
+            } else {
+                UserVersion userVersion = userVersions.get(change.getUserId());
+                if (change.getVersion() > globalSeen
+                        && (userVersion == null || userVersion.version < change.getVersion())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void apply(List<AuthorizationVersionChange> changes) {
+        long globalChange = 0;
+        for (AuthorizationVersionChange change : changes) {
+            sequence.accumulateAndGet(change.getVersion(), Math::max);
+            if (change.isGlobal()) {
+                globalChange = Math.max(globalChange, change.getVersion());
+            } else {
+                userVersions.merge(change.getUserId(), new UserVersion(change.getVersion(), change.getChangedAt()),
+                        (current, update) -> update.version >= current.version ? update : current);
+            }
+        }
+        if (globalChange > globalVersion) {
+            synchronized (this) {
+                if (globalChange > globalVersion) {
+                    globalVersion = globalChange;
+                }
+            }
+            long version = globalVersion;
+            userVersions.values().removeIf(userVersion -> userVersion.version <= version);
+        }
+    }
+
+    private static final class UserVersion {
+
+        final long version;
+
+        final long changedAt;
+
+        UserVersion(long version, long changedAt) {
+            this.version = version;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package top.hxll.kimi.security.authority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 授权版本存储
+ * 分配单调递增的授权版本号并记录变更，多节点共享时各节点按同一序列判断令牌中的权限是否可信
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public interface AuthorizationVersionStore {
+
+    /**
+     * 记录授权变更并分配版本号
+     *
+     * @param userIds 受影响的用户ID，为null时表示全局变更
+     * @return 写入的变更
+     */
+    List<AuthorizationVersionChange> bump(Collection<Long> userIds);
+
+    /**
+     * 拉取上次调用以来新增的变更（首次调用返回令牌有效期内的全部变更）
+     * 返回的变更可能与已拉取的重复，调用方需幂等处理
+     *
+     * @param since 首次调用时只返回该时间（毫秒时间戳）之后的变更
+     */
+    List<AuthorizationVersionChange> pollChanges(long since);
+
+    /**
+     * 删除早于指定时间的变更，保留最新的一条，避免版本序列回退
+     *
+     * @param before 时间（毫秒时间戳）
+     */
+    void deleteExpired(long before);
+
+    /**
+     * 是否在多个节点间共享
+     */
+    boolean isShared();
+}
@@ -0,0 +1,122 @@
+package top.hxll.kimi.security.authority;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.AuthorizationVersion;
+import top.hxll.kimi.mapper.AuthorizationVersionMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 数据库授权版本存储
+ * 每次变更写入 sys_authorization_version，自增主键即版本号，各节点按数据库生成的创建时间增量拉取
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.authorization-version.store", havingValue = "db")
+public class DatabaseAuthorizationVersionStore implements AuthorizationVersionStore {
+
+    /**
+     * 增量拉取的回看时间（秒），覆盖并发事务提交顺序与创建时间不一致的情况
+     */
+    private static final long LOOKBACK_SECONDS = 10;
+
+    private final AuthorizationVersionMapper authorizationVersionMapper;
+
+    /**
+     * 已拉取到的最大创建时间
+     */
+    private LocalDateTime lastCreateTime;
+
+    /**
+     * 已知的最大版本号，清理时保留
+     */
+    private volatile long maxVersion;
+
+    @Override
+    public List<AuthorizationVersionChange> bump(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+        List<AuthorizationVersion> rows = new ArrayList<>(userIds != null ? userIds.size() : 1);
+        if (userIds == null) {
+            rows.add(new AuthorizationVersion());
+        } else {
+            for (Long userId : userIds) {
+                AuthorizationVersion row = new AuthorizationVersion();
+                row.setUserId(userId);
+                rows.add(row);
+            }
+        }
+        // 一条多行INSERT写入所有受影响用户，每行回填各自的版本号
+        authorizationVersionMapper.batchInsert(rows);
+
+        List<AuthorizationVersionChange> changes = new ArrayList<>(rows.size());
+        long version = 0;
+        for (AuthorizationVersion row : rows) {
+            version = Math.max(version, row.getId());
+            changes.add(new AuthorizationVersionChange(row.getId(), row.getUserId(), now));
+        }
+        synchronized (this) {
+            maxVersion = Math.max(maxVersion, version);
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized List<AuthorizationVersionChange> pollChanges(long since) {
+        LambdaQueryWrapper<AuthorizationVersion> wrapper = new LambdaQueryWrapper<>();
+        if (lastCreateTime == null) {
+            wrapper.gt(AuthorizationVersion::getCreateTime, toDateTime(since));
+        } else {
+            wrapper.ge(AuthorizationVersion::getCreateTime, lastCreateTime.minusSeconds(LOOKBACK_SECONDS));
+        }
+        List<AuthorizationVersion> rows = authorizationVersionMapper.selectList(wrapper);
+        if (lastCreateTime == null) {
+            lastCreateTime = toDateTime(since);
+        }
+
+        for (AuthorizationVersion row : rows) {
+            if (row.getCreateTime() != null && row.getCreateTime().isAfter(lastCreateTime)) {
+                lastCreateTime = row.getCreateTime();
+            }
+            maxVersion = Math.max(maxVersion, row.getId());
+        }
+
+        return rows.stream()
+                .map(row -> new AuthorizationVersionChange(row.getId(), row.getUserId(),
+                        row.getCreateTime() != null
+                                ? row.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                                : System.currentTimeMillis()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void deleteExpired(long before) {
+        long keep = maxVersion;
+        if (keep == 0) {
+            return;
+        }
+        authorizationVersionMapper.delete(new LambdaQueryWrapper<AuthorizationVersion>()
+                .lt(AuthorizationVersion::getCreateTime, toDateTime(before))
+                .lt(AuthorizationVersion::getId, keep));
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
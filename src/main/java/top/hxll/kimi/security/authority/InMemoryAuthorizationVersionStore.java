@@ -0,0 +1,61 @@
+package top.hxll.kimi.security.authority;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内授权版本存储
+ * 适用于单节点部署和测试。版本号以启动时间戳为起点，首次拉取返回一条全局变更，重启前签发的令牌一律视为过期版本
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.authorization-version.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAuthorizationVersionStore implements AuthorizationVersionStore {
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final AtomicLong sequence = new AtomicLong(startTime);
+
+    private volatile boolean polled;
+
+    @Override
+    public List<AuthorizationVersionChange> bump(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+        long version = sequence.incrementAndGet();
+        if (userIds == null) {
+            return Collections.singletonList(new AuthorizationVersionChange(version, null, now));
+        }
+        List<AuthorizationVersionChange> changes = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            changes.add(new AuthorizationVersionChange(version, userId, now));
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized List<AuthorizationVersionChange> pollChanges(long since) {
+        // 变更只发生在本节点，写入时已生效，只需在首次拉取时返回起始版本
+        if (polled) {
+            return Collections.emptyList();
+        }
+        polled = true;
+        return Collections.singletonList(new AuthorizationVersionChange(startTime, null, startTime));
+    }
+
+    @Override
+    public void deleteExpired(long before) {
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,139 @@
+package top.hxll.kimi.security.authorization;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.security.authority.AuthorityChecker;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 基于数据库接口权限的URL授权
+ * 启用状态的接口权限（类型3）按请求方法和路径编译为路径树，命中规则的请求需要持有其中任一权限编码或管理员角色；
+ * 未命中任何规则时返回null，由调用方使用静态规则判断。
+ * 路径树由角色权限目录快照编译而来，快照替换后在下次请求时整体重建并替换，重建期间其他请求继续使用旧树
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UrlPermissionAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    /**
+     * 接口权限类型
+     */
+    private static final int PERMISSION_TYPE_API = 3;
+
+    private static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    private final RbacCatalog rbacCatalog;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    @Value("${security.url-authorization.enabled:true}")
+    private boolean enabled;
+
+    private volatile CompiledTrie compiled;
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        if (!enabled) {
+            return null;
+        }
+        HttpServletRequest request = context.getRequest();
+        Collection<String> codes;
+        try {
+            codes = getTrie().match(request.getMethod(), getRequestPath(request));
+        } catch (RuntimeException e) {
+            // 目录无法加载时交由静态规则判断
+            log.error("Failed to load URL permission rules: {}", e.getMessage());
+            return null;
+        }
+        if (codes == null) {
+            return null;
+        }
+
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated() || trustResolver.isAnonymous(current)) {
+            return new AuthorizationDecision(false);
+        }
+        Collection<? extends GrantedAuthority> authorities = AuthorityChecker.authoritiesOf(current);
+        if (AuthorityChecker.contains(authorities, ROLE_ADMIN)) {
+            return new AuthorizationDecision(true);
+        }
+        for (String code : codes) {
+            if (AuthorityChecker.contains(authorities, code)) {
+                return new AuthorizationDecision(true);
+            }
+        }
+        return new AuthorizationDecision(false);
+    }
+
+    private UrlPermissionTrie getTrie() {
+        RbacSnapshot source = rbacCatalog.getSnapshot();
+        CompiledTrie compiled = this.compiled;
+        if (compiled == null || compiled.source != source) {
+            compiled = new CompiledTrie(source, build(source));
+            this.compiled = compiled;
+            log.debug("URL permission rules compiled: {}", compiled.trie.size());
+        }
+        return compiled.trie;
+    }
+
+    private static UrlPermissionTrie build(RbacSnapshot source) {
+        UrlPermissionTrie.Builder builder = new UrlPermissionTrie.Builder();
+        for (Permission permission : source.getPermissionsByType(PERMISSION_TYPE_API)) {
+            if (Integer.valueOf(1).equals(permission.getStatus())
+                    && StringUtils.hasText(permission.getPath())
+                    && StringUtils.hasText(permission.getPermissionCode())) {
+                try {
+                    builder.add(permission.getMethod(), permission.getPath(), permission.getPermissionCode());
+                } catch (IllegalArgumentException e) {
+                    log.error("Invalid API permission path ignored: code={}, {}",
+                            permission.getPermissionCode(), e.getMessage());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 与AntPathRequestMatcher一致，使用servletPath + pathInfo作为匹配路径
+     */
+    private static String getRequestPath(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        return pathInfo != null ? path + pathInfo : path;
+    }
+
+    /**
+     * 路径树及其来源快照
+     */
+    private static final class CompiledTrie {
+
+        final RbacSnapshot source;
+
+        final UrlPermissionTrie trie;
+
+        CompiledTrie(RbacSnapshot source, UrlPermissionTrie trie) {
+            this.source = source;
+            this.trie = trie;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package top.hxll.kimi.security.authorization;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 接口权限路径树
+ * 按请求方法分别建树，路径按段逐级匹配，匹配优先级为：字面段 > 段内通配（如 *.json、{id:\d+}）> 单段通配（* 或 {变量}）> 多段通配（**）。
+ * 带正则的变量（{变量:正则}）按正则匹配该段，规则中的段格式错误时在添加规则时拒绝。
+ * 不含多段通配的规则匹配耗时只与路径深度有关；树构建完成后不再修改，可被多个线程同时读取
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public final class UrlPermissionTrie {
+
+    /**
+     * 未配置请求方法的规则匹配所有方法
+     */
+    private static final String ANY_METHOD = "*";
+
+    private static final AntPathMatcher SEGMENT_MATCHER = new AntPathMatcher();
+
+    /**
+     * 空树，没有任何规则
+     */
+    public static final UrlPermissionTrie EMPTY = new UrlPermissionTrie(new HashMap<>(), 0);
+
+    private final Map<String, Node> roots;
+
+    private final int ruleCount;
+
+    private UrlPermissionTrie(Map<String, Node> roots, int ruleCount) {
+        this.roots = roots;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * 查找请求对应的权限编码，指定方法的规则优先于不限方法的规则
+     *
+     * @param method 请求方法
+     * @param path   应用内请求路径
+     * @return 最具体的匹配规则上的权限编码，没有匹配的规则时返回null
+     */
+    public Collection<String> match(String method, String path) {
+        if (roots.isEmpty()) {
+            return null;
+        }
+        String[] segments = split(path);
+        Node root = roots.get(method);
+        Node matched = root != null ? match(root, segments, 0) : null;
+        if (matched == null) {
+            root = roots.get(ANY_METHOD);
+            matched = root != null ? match(root, segments, 0) : null;
+        }
+        return matched != null ? matched.codes : null;
+    }
+
+    /**
+     * 规则数量
+     */
+    public int size() {
+        return ruleCount;
+    }
+
+    private static Node match(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            if (node.codes != null) {
+                return node;
+            }
+            // 末尾的 ** 可以匹配零个段
+            return node.doubleWildcard != null ? match(node.doubleWildcard, segments, index) : null;
+        }
+
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            Node matched = match(literal, segments, index + 1);
+            if (matched != null) {
+                return matched;
+            }
+        }
+        if (node.patterns != null) {
+            for (Map.Entry<String, Node> entry : node.patterns.entrySet()) {
+                if (SEGMENT_MATCHER.match(entry.getKey(), segment)) {
+                    Node matched = match(entry.getValue(), segments, index + 1);
+                    if (matched != null) {
+                        return matched;
+                    }
+                }
+            }
+        }
+        if (node.wildcard != null) {
+            Node matched = match(node.wildcard, segments, index + 1);
+            if (matched != null) {
+                return matched;
+            }
+        }
+        if (node.doubleWildcard != null) {
+            for (int next = index; next <= segments.length; next++) {
+                Node matched = match(node.doubleWildcard, segments, next);
+                if (matched != null) {
+                    return matched;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 校验规则路径格式
+     *
+     * @throws IllegalArgumentException 路径中的变量括号不匹配或正则无效
+     */
+    public static void validate(String path) {
+        for (String segment : split(path)) {
+            validateSegment(segment);
+        }
+    }
+
+    private static void validateSegment(String segment) {
+        int depth = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth < 0) {
+                break;
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unbalanced braces in path segment: " + segment);
+        }
+        if (isPattern(segment)) {
+            try {
+                // 编译段模式，正则无效时抛出异常
+                SEGMENT_MATCHER.match(segment, "x");
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid regex in path segment: " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * 整段为不带正则的单个变量，如 {id}
+     */
+    private static boolean isPlainVariable(String segment) {
+        return segment.startsWith("{") && segment.endsWith("}")
+                && segment.indexOf('{', 1) < 0 && segment.indexOf(':') < 0;
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 路径树构建器
+     */
+    public static final class Builder {
+
+        private final Map<String, Node> roots = new HashMap<>();
+
+        private int ruleCount;
+
+        /**
+         * 添加规则
+         *
+         * @param method 请求方法，为空时匹配所有方法
+         * @param path   Ant风格路径，支持 *、**、{变量}、{变量:正则} 和段内通配
+         * @param code   访问该路径需要的权限编码
+         * @throws IllegalArgumentException 路径格式错误
+         */
+        public Builder add(String method, String path, String code) {
+            String[] segments = split(path);
+            for (String segment : segments) {
+                validateSegment(segment);
+            }
+            String key = method == null || method.trim().isEmpty()
+                    ? ANY_METHOD : method.trim().toUpperCase(Locale.ROOT);
+            Node node = roots.computeIfAbsent(key, k -> new Node());
+            for (String segment : segments) {
+                node = node.child(segment);
+            }
+            if (node.codes == null) {
+                node.codes = new LinkedHashSet<>();
+            }
+            node.codes.add(code);
+            ruleCount++;
+            return this;
+        }
+
+        public UrlPermissionTrie build() {
+            return new UrlPermissionTrie(roots, ruleCount);
+        }
+    }
+
+    /**
+     * 树节点
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+
+        private Map<String, Node> patterns;
+
+        private Node wildcard;
+
+        private Node doubleWildcard;
+
+        private Set<String> codes;
+
+        Node child(String segment) {
+            if ("**".equals(segment)) {
+                if (doubleWildcard == null) {
+                    doubleWildcard = new Node();
+                }
+                return doubleWildcard;
+            }
+            if ("*".equals(segment) || isPlainVariable(segment)) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                return wildcard;
+            }
+            if (isPattern(segment)) {
+                if (patterns == null) {
+                    patterns = new LinkedHashMap<>();
+                }
+                return patterns.computeIfAbsent(segment, k -> new Node());
+            }
+            return literals.computeIfAbsent(segment, k -> new Node());
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package top.hxll.kimi.security.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,15 +20,24 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import top.hxll.kimi.security.authorization.UrlPermissionAuthorizationManager;
+import top.hxll.kimi.security.crypto.BoundedPasswordEncoder;
+import top.hxll.kimi.security.crypto.PasswordHashExecutor;
+import top.hxll.kimi.security.expression.AuthorityExpressionHandler;
 import top.hxll.kimi.security.filter.JwtAuthenticationFilter;
 import top.hxll.kimi.security.handler.JwtAccessDeniedHandler;
 import top.hxll.kimi.security.handler.JwtAuthenticationEntryPoint;
 import top.hxll.kimi.security.service.UserDetailsServiceImpl;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Arrays;
 import java.util.List;
 
@@ -42,13 +57,24 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PasswordHashExecutor passwordHashExecutor;
+    private final MeterRegistry meterRegistry;
+    private final UrlPermissionAuthorizationManager urlPermissionAuthorizationManager;
 
     /**
-     * 密码编码器
+     * 密码编码器，BCrypt计算在有界的密码哈希线程池中执行
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashExecutor, meterRegistry);
+    }
+
+    /**
+     * 方法安全表达式处理器，@PreAuthorize中的权限和角色判断直接查询位图权限集合
+     */
+    @Bean
+    public static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new AuthorityExpressionHandler();
     }
 
     /**
@@ -102,6 +128,23 @@ public class SecurityConfig {
                 .antMatchers("/favicon.ico");
     }
 
+    /**
+     * URL授权：数据库接口权限优先，未命中时按静态规则判断
+     */
+    private AuthorizationManager<RequestAuthorizationContext> urlAuthorizationManager() {
+        AuthorizationManager<HttpServletRequest> staticRules = RequestMatcherDelegatingAuthorizationManager.builder()
+                // 需要认证的接口
+                .add(new AntPathRequestMatcher("/api/admin/**"), AuthorityAuthorizationManager.hasRole("ADMIN"))
+                .add(new AntPathRequestMatcher("/api/user/**"), AuthorityAuthorizationManager.hasAnyRole("USER", "ADMIN"))
+                // 其他接口需要认证
+                .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+                .build();
+        return (authentication, context) -> {
+            AuthorizationDecision decision = urlPermissionAuthorizationManager.check(authentication, context);
+            return decision != null ? decision : staticRules.check(authentication, context.getRequest());
+        };
+    }
+
     /**
      * HTTP安全配置
      */
@@ -118,7 +161,7 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 // 权限配置
-                .authorizeRequests()
+                .authorizeHttpRequests()
                 // 公共接口 - 不需要认证
                 .antMatchers("/api/hello/**").permitAll()
                 .antMatchers("/api/test/**").permitAll()
@@ -126,11 +169,8 @@ public class SecurityConfig {
                 .antMatchers("/api/auth/register").permitAll()       // 注册 - 公开
                 .antMatchers("/api/auth/refresh").permitAll()        // 刷新令牌 - 公开
                 .antMatchers("/api/public/**").permitAll()
-                // 需要认证的接口
-                .antMatchers("/api/admin/**").hasRole("ADMIN")
-                .antMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
-                // 其他接口需要认证
-                .anyRequest().authenticated();
+                // 其他接口先按数据库接口权限判断，未配置接口权限时使用静态规则
+                .anyRequest().access(urlAuthorizationManager());
 
         // 添加JWT过滤器
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
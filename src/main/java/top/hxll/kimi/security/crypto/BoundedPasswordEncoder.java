@@ -0,0 +1,71 @@
+package top.hxll.kimi.security.crypto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 受限密码编码器
+ * 在密码哈希线程中直接计算；在其他线程中调用时提交到密码哈希线程池并等待结果，
+ * 从而限制同时进行的BCrypt计算数量
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final PasswordHashExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashExecutor executor,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.encodeTimer = Timer.builder("security.password.hash.time")
+                .description("Time spent computing password hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("security.password.hash.time")
+                .description("Time spent computing password hashes")
+                .tag("operation", "match")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Supplier<T> task) {
+        if (executor.isHashThread()) {
+            return task.get();
+        }
+        try {
+            return executor.submit(task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package top.hxll.kimi.security.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.common.exception.BusinessException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希专用线程池
+ * 线程数等于CPU核数、队列有界，队列满时立即以503拒绝，避免BCrypt计算占满Web请求线程
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class PasswordHashExecutor {
+
+    private static final String THREAD_PREFIX = "password-hash-";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueWaitTimer;
+
+    private final Counter rejectedCounter;
+
+    public PasswordHashExecutor(@Value("${security.password-hash.threads:0}") int threads,
+                                @Value("${security.password-hash.queue-capacity:100}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWaitTimer = Timer.builder("security.password.hash.queue.wait")
+                .description("Time password hash tasks spend waiting in the queue")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("security.password.hash.rejected")
+                .description("Password hash tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hash tasks waiting in the queue")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hash threads currently running")
+                .register(meterRegistry);
+
+        log.info("Password hash executor initialized: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @throws BusinessException 队列已满时抛出，错误码503
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hash queue is full, rejecting request");
+            throw new BusinessException(503, "系统繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 当前线程是否为密码哈希线程
+     */
+    public boolean isHashThread() {
+        return Thread.currentThread() instanceof HashThread;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 密码哈希线程，用于识别已在线程池中执行的调用
+     */
+    private static final class HashThread extends Thread {
+
+        HashThread(Runnable target, String name) {
+            super(target, name);
+        }
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new HashThread(r, THREAD_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package top.hxll.kimi.security.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 授权变更事件
+ * 用户、角色或权限的变更影响了某些用户的可访问范围时发布，监听方据此精确失效缓存
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public class AuthorizationChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 直接受影响的用户ID
+     */
+    private final Set<Long> userIds;
+
+    /**
+     * 发生变更的角色ID（持有这些角色的用户受影响）
+     */
+    private final Set<Long> roleIds;
+
+    /**
+     * 发生变更的权限ID（持有这些权限的角色下的用户受影响）
+     */
+    private final Set<Long> permissionIds;
+
+    private AuthorizationChangedEvent(Object source, Collection<Long> userIds,
+                                      Collection<Long> roleIds, Collection<Long> permissionIds) {
+        super(source);
+        this.userIds = toSet(userIds);
+        this.roleIds = toSet(roleIds);
+        this.permissionIds = toSet(permissionIds);
+    }
+
+    /**
+     * 用户自身的授权信息发生变更
+     */
+    public static AuthorizationChangedEvent ofUsers(Object source, Collection<Long> userIds) {
+        return new AuthorizationChangedEvent(source, userIds, null, null);
+    }
+
+    /**
+     * 角色的状态或权限发生变更
+     */
+    public static AuthorizationChangedEvent ofRoles(Object source, Collection<Long> roleIds) {
+        return new AuthorizationChangedEvent(source, null, roleIds, null);
+    }
+
+    /**
+     * 权限的状态或编码发生变更
+     */
+    public static AuthorizationChangedEvent ofPermissions(Object source, Collection<Long> permissionIds) {
+        return new AuthorizationChangedEvent(source, null, null, permissionIds);
+    }
+
+    private static Set<Long> toSet(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new LinkedHashSet<>(ids));
+    }
+}
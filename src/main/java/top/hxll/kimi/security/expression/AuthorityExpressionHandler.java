@@ -0,0 +1,52 @@
+package top.hxll.kimi.security.expression;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法安全表达式处理器
+ * 使用AuthorityExpressionRoot求值；配置了角色继承时沿用Spring默认的表达式根对象
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class AuthorityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    /**
+     * 角色名 -> 带前缀的权限编码，表达式中的角色名有限，缓存后判断时不再拼接字符串
+     */
+    private final Map<String, String> roleAuthorities = new ConcurrentHashMap<>();
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+                                                                            MethodInvocation invocation) {
+        if (getRoleHierarchy() != null) {
+            return super.createSecurityExpressionRoot(authentication, invocation);
+        }
+        AuthorityExpressionRoot root = new AuthorityExpressionRoot(authentication, this,
+                getTrustResolver(), getPermissionEvaluator());
+        root.setThis(invocation.getThis());
+        return root;
+    }
+
+    /**
+     * 角色名转换为权限编码，已带前缀的角色名原样返回
+     */
+    String roleAuthority(String role) {
+        if (role == null) {
+            return null;
+        }
+        String authority = roleAuthorities.get(role);
+        if (authority == null) {
+            String prefix = getDefaultRolePrefix();
+            authority = prefix == null || role.startsWith(prefix) ? role : prefix + role;
+            roleAuthorities.put(role, authority);
+        }
+        return authority;
+    }
+}
@@ -0,0 +1,162 @@
+package top.hxll.kimi.security.expression;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import top.hxll.kimi.security.authority.AuthorityChecker;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * 方法安全表达式根对象
+ * 主体权限为位图集合时，hasAuthority/hasRole及其hasAny*变体直接按位判断，不构建临时权限集合；
+ * 其他权限集合按顺序比较编码
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class AuthorityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final Authentication authentication;
+
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    private final AuthorityExpressionHandler handler;
+
+    private final AuthenticationTrustResolver trustResolver;
+
+    private final PermissionEvaluator permissionEvaluator;
+
+    private Object filterObject;
+
+    private Object returnObject;
+
+    private Object target;
+
+    AuthorityExpressionRoot(Authentication authentication, AuthorityExpressionHandler handler,
+                            AuthenticationTrustResolver trustResolver, PermissionEvaluator permissionEvaluator) {
+        this.authentication = authentication;
+        this.authorities = AuthorityChecker.authoritiesOf(authentication);
+        this.handler = handler;
+        this.trustResolver = trustResolver;
+        this.permissionEvaluator = permissionEvaluator;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        return contains(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        for (String authority : authorities) {
+            if (contains(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return contains(handler.roleAuthority(role));
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        for (String role : roles) {
+            if (contains(handler.roleAuthority(role))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean permitAll() {
+        return true;
+    }
+
+    @Override
+    public boolean denyAll() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return trustResolver.isAnonymous(authentication);
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return !isAnonymous();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return trustResolver.isRememberMe(authentication);
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return !trustResolver.isAnonymous(authentication) && !trustResolver.isRememberMe(authentication);
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return permissionEvaluator.hasPermission(authentication, target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return permissionEvaluator.hasPermission(authentication, (Serializable) targetId, targetType, permission);
+    }
+
+    /**
+     * 当前主体，供表达式中使用principal
+     */
+    public Object getPrincipal() {
+        return authentication.getPrincipal();
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    void setThis(Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    private boolean contains(String authority) {
+        return AuthorityChecker.contains(authorities, authority);
+    }
+}
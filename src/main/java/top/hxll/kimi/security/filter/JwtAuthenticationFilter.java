@@ -1,14 +1,19 @@
 package top.hxll.kimi.security.filter;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthoritySet;
+import top.hxll.kimi.security.authority.AuthorizationVersionService;
+import top.hxll.kimi.security.service.UserDetailsImpl;
 import top.hxll.kimi.security.service.UserDetailsServiceImpl;
 import top.hxll.kimi.security.util.JwtUtils;
 
@@ -31,18 +36,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthorityCatalog authorityCatalog;
+    private final AuthorizationVersionService authorizationVersionService;
+
+    /**
+     * 免查库模式：不带授权版本的令牌、以及授权版本不在节点间共享时带授权版本的令牌，
+     * 也直接使用令牌中的用户ID和权限构建认证信息
+     */
+    @Value("${jwt.claims-only:false}")
+    private boolean claimsOnly;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         try {
-            String jwt = parseJwt(request);
+            String jwt = jwtUtils.getJwtFromRequest(request);
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
 
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            // 刷新令牌只能用于换取新令牌，不能作为访问令牌使用
+            if (claims != null && !JwtUtils.TOKEN_TYPE_REFRESH.equals(claims.get(JwtUtils.CLAIM_TOKEN_TYPE, String.class))) {
+                String username = claims.getSubject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = loadUserDetails(claims);
 
                 UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -60,15 +76,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * 从请求头中解析JWT令牌
+     * 获取用户详情
+     * 令牌的授权版本仍是最新时从令牌声明构建，紧凑权限声明直接解码为位图权限集合；
+     * 授权版本只保存在本节点时，其他节点的授权变更无法使其前移，此时与不带授权版本的旧令牌一样仅在免查库模式下使用令牌声明。
+     * 授权版本已前移、缺少用户ID或权限声明、或权限目录版本无法识别时重新加载用户详情
      */
-    private String parseJwt(HttpServletRequest request) {
-        String headerAuth = request.getHeader("Authorization");
-
-        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
+    private UserDetails loadUserDetails(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        if (userId != null && isAuthorizationCurrent(userId, claims)) {
+            String version = claims.get(JwtUtils.CLAIM_AUTHORITY_VERSION, String.class);
+            String bits = claims.get(JwtUtils.CLAIM_AUTHORITY_BITS, String.class);
+            if (version != null && bits != null) {
+                AuthoritySet authorities = authorityCatalog.decode(version, bits);
+                if (authorities != null) {
+                    return UserDetailsImpl.fromClaims(userId, claims.getSubject(), authorities);
+                }
+            }
+            String authorities = claims.get(JwtUtils.CLAIM_AUTHORITIES, String.class);
+            if (authorities != null) {
+                return UserDetailsImpl.fromClaims(userId, claims.getSubject(), authorities);
+            }
         }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
 
-        return null;
+    /**
+     * 令牌中的权限是否可信
+     */
+    private boolean isAuthorizationCurrent(Long userId, Claims claims) {
+        Long version = claims.get(JwtUtils.CLAIM_AUTHORIZATION_VERSION, Long.class);
+        if (version == null) {
+            return claimsOnly;
+        }
+        if (!claimsOnly && !authorizationVersionService.isShared()) {
+            return false;
+        }
+        return authorizationVersionService.isCurrent(userId, version);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package top.hxll.kimi.security.key;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.JwtKey;
+import top.hxll.kimi.mapper.JwtKeyMapper;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 数据库JWT密钥存储
+ * 密钥写入 sys_jwt_key，表中只保留未退役的少量密钥，各节点每次全量加载
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.signing.key-store", havingValue = "db")
+public class DatabaseJwtKeyStore implements JwtKeyStore {
+
+    private final JwtKeyMapper jwtKeyMapper;
+
+    @Override
+    public List<JwtKey> loadAll() {
+        return jwtKeyMapper.selectList(null);
+    }
+
+    @Override
+    public void save(JwtKey key) {
+        jwtKeyMapper.insert(key);
+    }
+
+    @Override
+    public void delete(Collection<String> keyIds) {
+        if (!keyIds.isEmpty()) {
+            jwtKeyMapper.deleteBatchIds(keyIds);
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package top.hxll.kimi.security.key;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.JwtKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内JWT密钥存储
+ * 适用于单节点部署和测试，重启后轮换出的密钥丢失
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.signing.key-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryJwtKeyStore implements JwtKeyStore {
+
+    private final Map<String, JwtKey> keys = new ConcurrentHashMap<>();
+
+    @Override
+    public List<JwtKey> loadAll() {
+        return new ArrayList<>(keys.values());
+    }
+
+    @Override
+    public void save(JwtKey key) {
+        keys.put(key.getKeyId(), key);
+    }
+
+    @Override
+    public void delete(Collection<String> keyIds) {
+        keys.keySet().removeAll(keyIds);
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
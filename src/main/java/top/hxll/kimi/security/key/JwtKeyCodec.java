@@ -0,0 +1,118 @@
+package top.hxll.kimi.security.key;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import top.hxll.kimi.entity.JwtKey;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * JWT密钥编解码
+ * 签名密钥使用由 jwt.secret 派生的AES密钥以AES-GCM加密后存储，各节点需配置相同的 jwt.secret
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public final class JwtKeyCodec {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec encryptionKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public JwtKeyCodec(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            this.encryptionKey = new SecretKeySpec(hash, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 编码为存储记录
+     *
+     * @param activateAt 开始用于签名的时间（毫秒时间戳）
+     */
+    public JwtKey encode(JwtSigningKey key, long activateAt) {
+        JwtKey record = new JwtKey();
+        record.setKeyId(key.getKeyId());
+        record.setAlgorithm(key.getAlgorithm().getValue());
+        record.setPrivateKey(encrypt(key.getSigningKey().getEncoded()));
+        if (key.isAsymmetric()) {
+            record.setPublicKey(Base64.getEncoder().encodeToString(key.getVerificationKey().getEncoded()));
+        }
+        record.setActivateAt(activateAt);
+        return record;
+    }
+
+    /**
+     * 解码存储记录
+     *
+     * @throws IllegalStateException 记录无法解密或解析
+     */
+    public JwtSigningKey decode(JwtKey record) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(record.getAlgorithm());
+        byte[] secret = decrypt(record.getPrivateKey());
+        try {
+            if (algorithm == SignatureAlgorithm.ES256) {
+                KeyFactory keyFactory = KeyFactory.getInstance("EC");
+                PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(secret));
+                PublicKey publicKey = keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(record.getPublicKey())));
+                return new JwtSigningKey(record.getKeyId(), algorithm, privateKey, publicKey);
+            }
+            if (algorithm.isHmac()) {
+                Key secretKey = new SecretKeySpec(secret, algorithm.getJcaName());
+                return new JwtSigningKey(record.getKeyId(), algorithm, secretKey, secretKey);
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid stored JWT key " + record.getKeyId(), e);
+        }
+        throw new IllegalStateException("Unsupported stored JWT key algorithm: " + record.getAlgorithm());
+    }
+
+    private String encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plain);
+            byte[] out = Arrays.copyOf(iv, IV_LENGTH + encrypted.length);
+            System.arraycopy(encrypted, 0, out, IV_LENGTH, encrypted.length);
+            return Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt JWT key", e);
+        }
+    }
+
+    private byte[] decrypt(String text) {
+        try {
+            byte[] data = Base64.getDecoder().decode(text);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+            return cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to decrypt stored JWT key, check that jwt.secret matches", e);
+        }
+    }
+}
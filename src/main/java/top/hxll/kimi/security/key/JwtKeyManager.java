@@ -0,0 +1,496 @@
+package top.hxll.kimi.security.key;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import top.hxll.kimi.entity.JwtKey;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWT密钥管理器
+ * 持有当前签名密钥和多把验签密钥，按令牌头中的kid以O(1)查找验签密钥。
+ * 轮换出的密钥写入密钥存储，并设置延后的生效时间：各节点定期加载密钥集合，
+ * 新密钥先在所有节点上用于验签，到生效时间后才用于签名；旧密钥在最长令牌有效期内继续验签
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    /**
+     * 遇到未知kid时重新加载密钥集合的最小间隔（毫秒）
+     */
+    private static final long RELOAD_ON_MISS_INTERVAL = 1000L;
+
+    private final JwtKeyStore keyStore;
+
+    @Value("${jwt.secret:mySecretKeyForKimiApplicationWithSpringBootAndSecurityFramework}")
+    private String jwtSecret;
+
+    @Value("${jwt.expiration:86400}")
+    private int jwtExpiration;
+
+    @Value("${jwt.refresh-expiration:604800}")
+    private int jwtRefreshExpiration;
+
+    /**
+     * 签名算法：HS256 或 ES256
+     */
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithmName;
+
+    /**
+     * ES256私钥（Base64编码的PKCS#8）
+     */
+    @Value("${jwt.signing.private-key:}")
+    private String privateKeyText;
+
+    /**
+     * ES256公钥（Base64编码的X.509）
+     */
+    @Value("${jwt.signing.public-key:}")
+    private String publicKeyText;
+
+    /**
+     * 是否接受不带kid、使用jwt.secret签名的令牌
+     * HS256下为false时配置密钥签名的令牌也带kid；ES256下为true时旧令牌在启动后的最长令牌有效期内可验签
+     */
+    @Value("${jwt.signing.accept-legacy:true}")
+    private boolean acceptLegacy;
+
+    /**
+     * 轮换出的密钥从创建到用于签名的延迟（毫秒），需大于密钥加载间隔和JWKS缓存时间
+     */
+    @Value("${jwt.signing.activation-delay:360000}")
+    private long activationDelay;
+
+    /**
+     * 从密钥存储加载密钥集合的间隔（毫秒）
+     */
+    @Value("${jwt.signing.key-sync-interval:10000}")
+    private long keySyncInterval;
+
+    private SignatureAlgorithm algorithm;
+
+    private JwtKeyCodec codec;
+
+    /**
+     * 配置文件中的签名密钥（HS256为jwt.secret，ES256为配置的密钥对），生效时间为0；未配置时为null
+     */
+    private JwtSigningKey configuredKey;
+
+    /**
+     * jwt.secret对应的HMAC密钥，用于校验不带kid的令牌；不接受旧令牌时为null
+     */
+    private JwtSigningKey legacyKey;
+
+    /**
+     * 启动时间，ES256下旧令牌的退役时间由此计算
+     */
+    private long startedAt;
+
+    /**
+     * 最近一次从存储加载的密钥
+     */
+    private volatile List<ScheduledKey> storedKeys = Collections.emptyList();
+
+    private volatile KeyRing keyRing;
+
+    private final AtomicLong lastReloadOnMiss = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        algorithm = SignatureAlgorithm.forName(algorithmName);
+        if (algorithm != SignatureAlgorithm.HS256 && algorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithmName);
+        }
+        codec = new JwtKeyCodec(jwtSecret);
+
+        startedAt = System.currentTimeMillis();
+        Key secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        if (acceptLegacy) {
+            legacyKey = new JwtSigningKey(null, SignatureAlgorithm.HS256, secretKey, secretKey);
+        }
+
+        if (algorithm == SignatureAlgorithm.HS256) {
+            // 接受旧令牌时保持原有行为：未轮换前使用jwt.secret签名且不带kid；否则使用由secret派生的kid
+            configuredKey = acceptLegacy ? legacyKey
+                    : new JwtSigningKey(keyIdOf(secretKey), SignatureAlgorithm.HS256, secretKey, secretKey);
+        } else if (StringUtils.hasText(privateKeyText) && StringUtils.hasText(publicKeyText)) {
+            configuredKey = loadEcKey(privateKeyText, publicKeyText);
+        }
+        if (activationDelay < keySyncInterval) {
+            log.warn("jwt.signing.activation-delay ({}ms) is shorter than jwt.signing.key-sync-interval ({}ms); "
+                    + "other nodes may reject tokens signed right after a rotation", activationDelay, keySyncInterval);
+        }
+
+        reload();
+        if (keyRing.current == null) {
+            // 未配置密钥且存储中没有已生效的密钥：生成首个密钥并立即生效，其他节点从存储加载
+            JwtSigningKey key = generateKey(algorithm);
+            keyStore.save(codec.encode(key, System.currentTimeMillis()));
+            if (!keyStore.isShared()) {
+                log.warn("No jwt.signing key pair configured and jwt.signing.key-store is memory; generated key {} "
+                        + "will not survive a restart or be accepted by other nodes", key.getKeyId());
+            }
+            reload();
+        }
+        log.info("JWT signing initialized: algorithm={}, kid={}", algorithm, keyRing.current.getKeyId());
+    }
+
+    /**
+     * 当前签名密钥
+     */
+    public JwtSigningKey getCurrentKey() {
+        return keyRing.current;
+    }
+
+    /**
+     * 按kid查找验签密钥
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        JwtSigningKey key = keyId == null ? keyRing.legacy : keyRing.verificationKeys.get(keyId);
+        if (key == null && keyId != null && reloadOnMiss()) {
+            // 其他节点刚生成的密钥可能尚未加载
+            key = keyRing.verificationKeys.get(keyId);
+        }
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + keyId);
+        }
+        if (!key.getAlgorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("JWT algorithm does not match key " + keyId);
+        }
+        return key.getVerificationKey();
+    }
+
+    /**
+     * 轮换签名密钥
+     * 生成新密钥写入密钥存储，经过 activation-delay 后成为签名密钥；在此之前各节点已加载它用于验签。
+     * 旧密钥在新密钥生效后的最长令牌有效期内继续验签
+     *
+     * @return 新密钥的kid
+     */
+    public synchronized String rotate() {
+        JwtSigningKey next = generateKey(algorithm);
+        long activateAt = System.currentTimeMillis() + activationDelay;
+        keyStore.save(codec.encode(next, activateAt));
+        if (!keyStore.isShared()) {
+            log.warn("JWT key {} is kept in memory only; other nodes will not accept tokens it signs",
+                    next.getKeyId());
+        }
+        reload();
+
+        log.info("JWT signing key {} created, signing with it from {}", next.getKeyId(), Instant.ofEpochMilli(activateAt));
+        return next.getKeyId();
+    }
+
+    /**
+     * 公开的验签公钥集合（JWKS格式），对称密钥不公开；包含尚未生效的密钥，便于下游提前缓存
+     */
+    public Map<String, Object> getJwkSet() {
+        return keyRing.jwkSet;
+    }
+
+    /**
+     * 定期从存储加载密钥集合，并按当前时间切换签名密钥
+     */
+    @Scheduled(initialDelayString = "${jwt.signing.key-sync-interval:10000}",
+            fixedDelayString = "${jwt.signing.key-sync-interval:10000}")
+    public void refreshKeys() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Failed to load JWT keys, keeping the current key set: {}", e.getMessage());
+            rebuild();
+        }
+    }
+
+    /**
+     * 从存储删除已过退役期的密钥
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void removeRetiredKeys() {
+        long now = System.currentTimeMillis();
+        List<String> retired = new ArrayList<>();
+        List<ScheduledKey> keys = sorted(storedKeys);
+        for (int i = 0; i < keys.size(); i++) {
+            long retireAt = retireAt(keys, i, now);
+            if (retireAt != 0 && retireAt <= now) {
+                retired.add(keys.get(i).key.getKeyId());
+            }
+        }
+        if (!retired.isEmpty()) {
+            try {
+                keyStore.delete(retired);
+                log.info("Removed retired JWT keys: {}", retired);
+            } catch (Exception e) {
+                log.warn("Failed to remove retired JWT keys: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 从存储加载密钥并重建密钥环
+     */
+    private synchronized void reload() {
+        List<ScheduledKey> keys = new ArrayList<>();
+        for (JwtKey record : keyStore.loadAll()) {
+            try {
+                keys.add(new ScheduledKey(codec.decode(record), record.getActivateAt()));
+            } catch (IllegalStateException e) {
+                log.warn("Skipping stored JWT key {}: {}", record.getKeyId(), e.getMessage());
+            }
+        }
+        storedKeys = keys;
+        rebuild();
+    }
+
+    /**
+     * 未知kid触发的重新加载，限制频率，避免伪造kid的请求压垮存储
+     */
+    private boolean reloadOnMiss() {
+        long now = System.currentTimeMillis();
+        long last = lastReloadOnMiss.get();
+        if (now - last < RELOAD_ON_MISS_INTERVAL || !lastReloadOnMiss.compareAndSet(last, now)) {
+            return false;
+        }
+        try {
+            reload();
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to load JWT keys for unknown kid: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 由配置密钥和已加载的密钥重建密钥环：已生效的最新密钥用于签名，未退役的密钥用于验签。
+     * 不带kid的旧令牌密钥与其他密钥一样在后继密钥生效并经过最长令牌有效期后退役
+     */
+    private synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        List<ScheduledKey> keys = new ArrayList<>(storedKeys);
+        if (configuredKey != null) {
+            keys.add(new ScheduledKey(configuredKey, 0L));
+        }
+        keys = sorted(keys);
+
+        JwtSigningKey current = null;
+        JwtSigningKey legacy = null;
+        Map<String, JwtSigningKey> verificationKeys = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            ScheduledKey scheduled = keys.get(i);
+            if (scheduled.activateAt <= now) {
+                current = scheduled.key;
+            }
+            long retireAt = retireAt(keys, i, now);
+            if (retireAt != 0 && retireAt <= now) {
+                continue;
+            }
+            JwtSigningKey verificationKey = retireAt == 0 ? scheduled.key : scheduled.key.retiring(retireAt);
+            if (scheduled.key.getKeyId() == null) {
+                legacy = verificationKey;
+            } else {
+                verificationKeys.put(scheduled.key.getKeyId(), verificationKey);
+            }
+        }
+        if (legacyKey != null && algorithm != SignatureAlgorithm.HS256) {
+            // ES256下旧令牌均在切换前签发，启动后经过最长令牌有效期即全部过期
+            long retireAt = startedAt + maxTokenLifetime();
+            legacy = retireAt > now ? legacyKey.retiring(retireAt) : null;
+        }
+
+        KeyRing previous = keyRing;
+        if (current == null && previous != null) {
+            // 存储中的密钥被外部删除时继续使用原签名密钥
+            current = previous.current;
+        }
+        keyRing = new KeyRing(current, legacy, verificationKeys, buildJwkSet(verificationKeys.values()));
+        if (previous != null && previous.current != current && current != null) {
+            log.info("JWT signing key switched: {} -> {}",
+                    previous.current == null ? null : previous.current.getKeyId(), current.getKeyId());
+        }
+    }
+
+    /**
+     * 密钥退役时间：后继密钥生效后再经过最长令牌有效期；后继密钥尚未生效时返回0
+     */
+    private long retireAt(List<ScheduledKey> sortedKeys, int index, long now) {
+        if (index + 1 >= sortedKeys.size()) {
+            return 0L;
+        }
+        long successorActivateAt = sortedKeys.get(index + 1).activateAt;
+        if (successorActivateAt > now) {
+            return 0L;
+        }
+        return successorActivateAt + maxTokenLifetime();
+    }
+
+    /**
+     * 最长令牌有效期（毫秒）
+     */
+    private long maxTokenLifetime() {
+        return Math.max(jwtExpiration, jwtRefreshExpiration) * 1000L;
+    }
+
+    private static List<ScheduledKey> sorted(List<ScheduledKey> keys) {
+        List<ScheduledKey> sorted = new ArrayList<>(keys);
+        sorted.sort(Comparator.comparingLong((ScheduledKey k) -> k.activateAt)
+                .thenComparing(k -> k.key.getKeyId(), Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sorted;
+    }
+
+    private static Map<String, Object> buildJwkSet(Collection<JwtSigningKey> verificationKeys) {
+        List<JWK> keys = new ArrayList<>();
+        for (JwtSigningKey key : verificationKeys) {
+            if (key.getAlgorithm() == SignatureAlgorithm.ES256) {
+                keys.add(new ECKey.Builder(Curve.P_256, (ECPublicKey) key.getVerificationKey())
+                        .keyID(key.getKeyId())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.ES256)
+                        .build());
+            }
+        }
+        return Collections.unmodifiableMap(new JWKSet(keys).toJSONObject(true));
+    }
+
+    private static JwtSigningKey generateKey(SignatureAlgorithm algorithm) {
+        if (algorithm == SignatureAlgorithm.ES256) {
+            KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+            return new JwtSigningKey(keyIdOf(keyPair.getPublic()), algorithm, keyPair.getPrivate(),
+                    keyPair.getPublic());
+        }
+        Key secretKey = Keys.secretKeyFor(algorithm);
+        return new JwtSigningKey(UUID.randomUUID().toString(), algorithm, secretKey, secretKey);
+    }
+
+    private static JwtSigningKey loadEcKey(String privateKeyText, String publicKeyText) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodeKey(privateKeyText)));
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodeKey(publicKeyText)));
+            return new JwtSigningKey(keyIdOf(publicKey), SignatureAlgorithm.ES256, privateKey, publicKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid jwt.signing key pair", e);
+        }
+    }
+
+    /**
+     * 解码Base64密钥，兼容PEM格式
+     */
+    private static byte[] decodeKey(String text) {
+        String base64 = text.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    /**
+     * 由公钥摘要生成kid，相同密钥在各节点上得到相同kid
+     */
+    private static String keyIdOf(PublicKey publicKey) {
+        return keyIdOf(publicKey.getEncoded());
+    }
+
+    /**
+     * 由对称密钥派生kid，摘要加入用途前缀，不直接暴露密钥本身的摘要
+     */
+    private static String keyIdOf(Key secretKey) {
+        byte[] label = "kimi-jwt-kid:".getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = secretKey.getEncoded();
+        byte[] input = new byte[label.length + encoded.length];
+        System.arraycopy(label, 0, input, 0, label.length);
+        System.arraycopy(encoded, 0, input, label.length, encoded.length);
+        return keyIdOf(input);
+    }
+
+    private static String keyIdOf(byte[] material) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(material);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 16);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 带生效时间的密钥
+     */
+    private static final class ScheduledKey {
+
+        final JwtSigningKey key;
+
+        final long activateAt;
+
+        ScheduledKey(JwtSigningKey key, long activateAt) {
+            this.key = key;
+            this.activateAt = activateAt;
+        }
+    }
+
+    /**
+     * 密钥环快照，整体替换
+     */
+    private static final class KeyRing {
+
+        final JwtSigningKey current;
+
+        /**
+         * 校验不带kid的令牌的密钥，已退役或不接受时为null
+         */
+        final JwtSigningKey legacy;
+
+        final Map<String, JwtSigningKey> verificationKeys;
+
+        final Map<String, Object> jwkSet;
+
+        KeyRing(JwtSigningKey current, JwtSigningKey legacy, Map<String, JwtSigningKey> verificationKeys,
+                Map<String, Object> jwkSet) {
+            this.current = current;
+            this.legacy = legacy;
+            this.verificationKeys = verificationKeys;
+            this.jwkSet = jwkSet;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package top.hxll.kimi.security.key;
+
+import top.hxll.kimi.entity.JwtKey;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JWT密钥存储
+ * 保存轮换出的密钥，各节点定期加载完整密钥集合
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public interface JwtKeyStore {
+
+    /**
+     * 加载全部密钥
+     */
+    List<JwtKey> loadAll();
+
+    /**
+     * 保存密钥
+     */
+    void save(JwtKey key);
+
+    /**
+     * 删除指定密钥
+     */
+    void delete(Collection<String> keyIds);
+
+    /**
+     * 密钥是否在节点之间共享并在重启后保留
+     */
+    boolean isShared();
+}
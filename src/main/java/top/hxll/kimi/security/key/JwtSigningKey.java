@@ -0,0 +1,57 @@
+package top.hxll.kimi.security.key;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.Getter;
+
+import java.security.Key;
+
+/**
+ * JWT签名密钥
+ * 对称算法的签名密钥与验签密钥相同；非对称算法分别为私钥和公钥
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public final class JwtSigningKey {
+
+    /**
+     * 密钥ID（令牌头中的kid），未指定kid的旧令牌使用null
+     */
+    private final String keyId;
+
+    private final SignatureAlgorithm algorithm;
+
+    private final Key signingKey;
+
+    private final Key verificationKey;
+
+    /**
+     * 停止验签的时间（毫秒时间戳），0表示未退役
+     */
+    private final long retireAt;
+
+    public JwtSigningKey(String keyId, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+        this(keyId, algorithm, signingKey, verificationKey, 0L);
+    }
+
+    private JwtSigningKey(String keyId, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey,
+                          long retireAt) {
+        this.keyId = keyId;
+        this.algorithm = algorithm;
+        this.signingKey = signingKey;
+        this.verificationKey = verificationKey;
+        this.retireAt = retireAt;
+    }
+
+    /**
+     * 返回一个只用于验签、到期后移除的副本
+     */
+    public JwtSigningKey retiring(long retireAt) {
+        return new JwtSigningKey(keyId, algorithm, null, verificationKey, retireAt);
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm.isEllipticCurve() || algorithm.isRsa();
+    }
+}
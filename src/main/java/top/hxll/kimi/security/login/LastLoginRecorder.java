@@ -0,0 +1,94 @@
+package top.hxll.kimi.security.login;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.User;
+import top.hxll.kimi.mapper.UserMapper;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最后登录信息延迟写入
+ * 登录时只在内存中记录（用户ID、时间、IP），同一用户多次登录只保留最新一次，
+ * 定时以一条 UPDATE ... CASE 批量写入，应用关闭时写出剩余记录
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginRecorder {
+
+    private final UserMapper userMapper;
+
+    @Value("${security.last-login.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写入记录：用户ID -> 最新登录信息
+     */
+    private final Map<Long, User> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次登录
+     */
+    public void record(Long userId, String ip) {
+        User user = new User();
+        user.setId(userId);
+        user.setLastLoginTime(LocalDateTime.now());
+        user.setLastLoginIp(ip);
+        pending.put(userId, user);
+    }
+
+    /**
+     * 将待写入记录批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${security.last-login.flush-interval:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<User> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        Iterator<Long> iterator = pending.keySet().iterator();
+        while (iterator.hasNext()) {
+            User user = pending.remove(iterator.next());
+            if (user == null) {
+                continue;
+            }
+            batch.add(user);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private void write(List<User> batch) {
+        try {
+            userMapper.batchUpdateLastLogin(batch);
+            log.debug("Flushed last login info for {} users", batch.size());
+        } catch (Exception e) {
+            // 写入失败时放回队列，期间若有更新的登录记录则以新记录为准
+            batch.forEach(user -> pending.putIfAbsent(user.getId(), user));
+            log.warn("Failed to flush last login info for {} users: {}", batch.size(), e.getMessage());
+        }
+    }
+}
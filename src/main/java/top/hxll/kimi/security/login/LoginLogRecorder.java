@@ -0,0 +1,95 @@
+package top.hxll.kimi.security.login;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.common.concurrent.AsyncBatchWriter;
+import top.hxll.kimi.entity.LoginLog;
+import top.hxll.kimi.mapper.LoginLogMapper;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+
+/**
+ * 登录日志记录器
+ * 登录结果放入有界环形队列后立即返回，由后台线程批量写入 sys_login_log，不增加登录耗时
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class LoginLogRecorder {
+
+    private static final int MAX_USERNAME_LENGTH = 50;
+
+    private static final int MAX_IP_LENGTH = 50;
+
+    private static final int MAX_USER_AGENT_LENGTH = 500;
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final AsyncBatchWriter<LoginLog> writer;
+
+    public LoginLogRecorder(LoginLogMapper loginLogMapper, MeterRegistry meterRegistry,
+                            @Value("${security.login-log.capacity:8192}") int capacity,
+                            @Value("${security.login-log.batch-size:200}") int batchSize,
+                            @Value("${security.login-log.flush-interval:2000}") long flushInterval) {
+        this.writer = new AsyncBatchWriter<>("login-log", capacity, batchSize, flushInterval,
+                loginLogMapper::batchInsert);
+
+        FunctionCounter.builder("security.login.log.dropped", writer, AsyncBatchWriter::getDroppedCount)
+                .description("Login log entries dropped because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.login.log.failed", writer, AsyncBatchWriter::getFailedCount)
+                .description("Login log entries lost because the batch insert failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.login.log.written", writer, AsyncBatchWriter::getWrittenCount)
+                .description("Login log entries written")
+                .register(meterRegistry);
+        Gauge.builder("security.login.log.pending", writer, AsyncBatchWriter::getPendingCount)
+                .description("Login log entries waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录登录成功
+     */
+    public void recordSuccess(Long userId, String username, String ip, String userAgent) {
+        submit(userId, username, ip, userAgent, 1, null);
+    }
+
+    /**
+     * 记录登录失败
+     */
+    public void recordFailure(String username, String ip, String userAgent, String errorMessage) {
+        submit(0L, username, ip, userAgent, 0, errorMessage);
+    }
+
+    @PreDestroy
+    public void close() {
+        writer.close();
+    }
+
+    private void submit(Long userId, String username, String ip, String userAgent, int status, String errorMessage) {
+        LoginLog loginLog = new LoginLog();
+        loginLog.setUserId(userId);
+        // 字段长度与 sys_login_log 一致，失败登录的用户名由客户端提供，超长时会导致整批写入失败
+        loginLog.setUsername(truncate(username, MAX_USERNAME_LENGTH));
+        loginLog.setLoginTime(LocalDateTime.now());
+        loginLog.setLoginIp(truncate(ip, MAX_IP_LENGTH));
+        loginLog.setUserAgent(truncate(userAgent, MAX_USER_AGENT_LENGTH));
+        loginLog.setLoginStatus(status);
+        loginLog.setErrorMessage(truncate(errorMessage, MAX_ERROR_LENGTH));
+        if (!writer.submit(loginLog)) {
+            log.debug("Login log buffer is full, dropping entry for user: {}", username);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,102 @@
+package top.hxll.kimi.security.rbac;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.entity.RolePermission;
+import top.hxll.kimi.mapper.PermissionMapper;
+import top.hxll.kimi.mapper.RoleMapper;
+import top.hxll.kimi.mapper.RolePermissionMapper;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+
+import java.util.List;
+
+/**
+ * 角色权限目录
+ * 角色、权限及其关联数据量小、读多写少，整体加载为不可变快照供读取方法使用。
+ * 首次使用时加载；角色或权限变更的事务提交后重新加载并整体替换，加载期间读取继续使用旧快照。
+ * 派生缓存可通过比较快照对象是否变化判断是否需要重建
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RbacCatalog {
+
+    private final RoleMapper roleMapper;
+    private final PermissionMapper permissionMapper;
+    private final RolePermissionMapper rolePermissionMapper;
+
+    private volatile RbacSnapshot snapshot;
+
+    /**
+     * 当前快照，尚未加载时从数据库加载
+     */
+    public RbacSnapshot getSnapshot() {
+        RbacSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 重新加载并替换快照
+     */
+    public synchronized RbacSnapshot reload() {
+        List<Role> roles = roleMapper.selectList(null);
+        List<Permission> permissions = permissionMapper.selectList(null);
+        List<RolePermission> rolePermissions = rolePermissionMapper.selectList(null);
+
+        RbacSnapshot loaded = new RbacSnapshot(roles, permissions, rolePermissions);
+        snapshot = loaded;
+        log.debug("RBAC catalog loaded: {} roles, {} permissions, {} grants",
+                roles.size(), permissions.size(), rolePermissions.size());
+        return loaded;
+    }
+
+    /**
+     * 角色或权限变更事务提交后重新加载，先于其他授权变更监听器执行
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        if ((!event.getRoleIds().isEmpty() || !event.getPermissionIds().isEmpty()) && snapshot != null) {
+            try {
+                reload();
+            } catch (Exception e) {
+                // 丢弃旧快照，下次读取时重新加载
+                log.warn("Failed to reload RBAC catalog: {}", e.getMessage());
+                snapshot = null;
+            }
+        }
+    }
+
+    /**
+     * 定时重新加载，同步其他节点上的变更
+     */
+    @Scheduled(fixedDelayString = "${security.rbac-catalog.refresh-interval:60000}")
+    public void refresh() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Failed to refresh RBAC catalog: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package top.hxll.kimi.security.rbac;
+
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.entity.RolePermission;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 角色权限目录快照
+ * 构建完成后不再修改：按ID、编码建立哈希索引，权限按类型分桶、按父ID建立子节点列表，并保存角色到权限的邻接关系。
+ * 列表均按 sort_order、id 升序排列，与原查询的排序一致；返回的实体为共享对象，调用方不应修改
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public final class RbacSnapshot {
+
+    /**
+     * 与 ORDER BY sort_order, id 一致的排序（MySQL中NULL排在最前）
+     */
+    private static final Comparator<Role> ROLE_ORDER = Comparator
+            .comparing(Role::getSortOrder, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Role::getId);
+
+    private static final Comparator<Permission> PERMISSION_ORDER = Comparator
+            .comparing(Permission::getSortOrder, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Permission::getId);
+
+    private static final Integer ENABLED = 1;
+
+    private final List<Role> roles;
+
+    private final Map<Long, Role> rolesById;
+
+    private final Map<String, Role> rolesByCode;
+
+    private final List<Permission> permissions;
+
+    private final Map<Long, Permission> permissionsById;
+
+    private final Map<String, Permission> permissionsByCode;
+
+    private final Map<Integer, List<Permission>> permissionsByType;
+
+    private final Map<Long, List<Permission>> permissionsByParent;
+
+    private final Map<Long, List<Permission>> permissionsByRole;
+
+    RbacSnapshot(List<Role> roleList, List<Permission> permissionList, List<RolePermission> rolePermissions) {
+        List<Role> sortedRoles = new ArrayList<>(roleList);
+        sortedRoles.sort(ROLE_ORDER);
+        List<Permission> sortedPermissions = new ArrayList<>(permissionList);
+        sortedPermissions.sort(PERMISSION_ORDER);
+
+        Map<Long, Role> roleIndex = new HashMap<>(sortedRoles.size() * 2);
+        Map<String, Role> roleCodeIndex = new HashMap<>(sortedRoles.size() * 2);
+        for (Role role : sortedRoles) {
+            roleIndex.put(role.getId(), role);
+            if (role.getRoleCode() != null) {
+                roleCodeIndex.putIfAbsent(codeKey(role.getRoleCode()), role);
+            }
+        }
+
+        Map<Long, Permission> permissionIndex = new HashMap<>(sortedPermissions.size() * 2);
+        Map<String, Permission> permissionCodeIndex = new HashMap<>(sortedPermissions.size() * 2);
+        Map<Integer, List<Permission>> typeBuckets = new HashMap<>();
+        Map<Long, List<Permission>> children = new HashMap<>();
+        for (Permission permission : sortedPermissions) {
+            permissionIndex.put(permission.getId(), permission);
+            if (permission.getPermissionCode() != null) {
+                permissionCodeIndex.putIfAbsent(codeKey(permission.getPermissionCode()), permission);
+            }
+            if (permission.getPermissionType() != null) {
+                typeBuckets.computeIfAbsent(permission.getPermissionType(), k -> new ArrayList<>()).add(permission);
+            }
+            Long parentId = permission.getParentId() != null ? permission.getParentId() : 0L;
+            children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(permission);
+        }
+
+        Map<Long, Map<Long, Permission>> grants = new HashMap<>();
+        for (RolePermission rolePermission : rolePermissions) {
+            Permission permission = permissionIndex.get(rolePermission.getPermissionId());
+            if (permission != null && roleIndex.containsKey(rolePermission.getRoleId())) {
+                grants.computeIfAbsent(rolePermission.getRoleId(), k -> new HashMap<>())
+                        .putIfAbsent(permission.getId(), permission);
+            }
+        }
+        Map<Long, List<Permission>> adjacency = new HashMap<>(grants.size() * 2);
+        for (Map.Entry<Long, Map<Long, Permission>> entry : grants.entrySet()) {
+            List<Permission> granted = new ArrayList<>(entry.getValue().values());
+            granted.sort(PERMISSION_ORDER);
+            adjacency.put(entry.getKey(), granted);
+        }
+
+        this.roles = Collections.unmodifiableList(sortedRoles);
+        this.rolesById = roleIndex;
+        this.rolesByCode = roleCodeIndex;
+        this.permissions = Collections.unmodifiableList(sortedPermissions);
+        this.permissionsById = permissionIndex;
+        this.permissionsByCode = permissionCodeIndex;
+        this.permissionsByType = freeze(typeBuckets);
+        this.permissionsByParent = freeze(children);
+        this.permissionsByRole = freeze(adjacency);
+    }
+
+    /**
+     * 所有角色
+     */
+    public List<Role> getRoles() {
+        return roles;
+    }
+
+    public Role getRole(Long id) {
+        return rolesById.get(id);
+    }
+
+    /**
+     * 按角色编码查找（不区分大小写，与数据库排序规则一致）
+     */
+    public Role getRoleByCode(String roleCode) {
+        return roleCode != null ? rolesByCode.get(codeKey(roleCode)) : null;
+    }
+
+    /**
+     * 所有权限
+     */
+    public List<Permission> getPermissions() {
+        return permissions;
+    }
+
+    public Permission getPermission(Long id) {
+        return permissionsById.get(id);
+    }
+
+    /**
+     * 按权限编码查找（不区分大小写，与数据库排序规则一致）
+     */
+    public Permission getPermissionByCode(String permissionCode) {
+        return permissionCode != null ? permissionsByCode.get(codeKey(permissionCode)) : null;
+    }
+
+    /**
+     * 指定类型的权限
+     */
+    public List<Permission> getPermissionsByType(Integer type) {
+        return permissionsByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * 指定父权限的直接子权限，父ID为0时返回顶级权限
+     */
+    public List<Permission> getChildren(Long parentId) {
+        return permissionsByParent.getOrDefault(parentId, Collections.emptyList());
+    }
+
+    /**
+     * 角色拥有的权限
+     */
+    public List<Permission> getPermissionsByRole(Long roleId) {
+        return permissionsByRole.getOrDefault(roleId, Collections.emptyList());
+    }
+
+    /**
+     * 按角色ID解析启用的角色，忽略不存在（已删除）或已禁用的角色
+     */
+    public List<Role> getEnabledRoles(Collection<Long> roleIds) {
+        List<Role> result = new ArrayList<>(roleIds.size());
+        for (Long roleId : roleIds) {
+            Role role = rolesById.get(roleId);
+            if (role != null && ENABLED.equals(role.getStatus())) {
+                result.add(role);
+            }
+        }
+        result.sort(ROLE_ORDER);
+        return result;
+    }
+
+    /**
+     * 解析角色授予的权限编码：只包含启用角色上的启用权限，去重后按权限顺序返回
+     */
+    public List<String> getPermissionCodes(Collection<Long> roleIds) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (Role role : getEnabledRoles(roleIds)) {
+            for (Permission permission : getPermissionsByRole(role.getId())) {
+                if (ENABLED.equals(permission.getStatus()) && permission.getPermissionCode() != null) {
+                    codes.add(permission.getPermissionCode());
+                }
+            }
+        }
+        return new ArrayList<>(codes);
+    }
+
+    private static String codeKey(String code) {
+        return code.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K, V> Map<K, List<V>> freeze(Map<K, List<V>> map) {
+        map.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return map;
+    }
+}
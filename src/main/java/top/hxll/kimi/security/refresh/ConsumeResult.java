@@ -0,0 +1,30 @@
+package top.hxll.kimi.security.refresh;
+
+/**
+ * 刷新令牌使用结果
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public enum ConsumeResult {
+
+    /**
+     * 首次使用，已标记为已使用
+     */
+    CONSUMED,
+
+    /**
+     * 令牌已被使用过（疑似被盗用后重放）
+     */
+    REUSED,
+
+    /**
+     * 令牌所属的令牌族已被吊销
+     */
+    REVOKED,
+
+    /**
+     * 令牌不存在（非本服务签发或已过期清理）
+     */
+    NOT_FOUND
+}
@@ -0,0 +1,95 @@
+package top.hxll.kimi.security.refresh;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.entity.RefreshToken;
+import top.hxll.kimi.mapper.RefreshTokenMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 数据库刷新令牌存储
+ * 按主键（jti）查找；使用状态通过条件更新原子切换，多节点之间同样只能成功使用一次。
+ * 吊销按令牌族判断：族内任一令牌已吊销即视为整族已吊销，吊销之后才写入的后继令牌同样不可用
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.refresh-store", havingValue = "db")
+public class DatabaseRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenMapper refreshTokenMapper;
+
+    @Override
+    public void save(String tokenId, String familyId, String username, long expiresAt) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenId(tokenId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUsername(username);
+        refreshToken.setExpireTime(toDateTime(expiresAt));
+        refreshToken.setUsed(0);
+        refreshToken.setRevoked(0);
+        refreshTokenMapper.insert(refreshToken);
+
+        // 使用旧令牌与写入后继令牌之间令牌族可能已被吊销（并发重放），吊销标记延续到后继令牌
+        if (isFamilyRevoked(familyId)) {
+            refreshTokenMapper.update(null, new LambdaUpdateWrapper<RefreshToken>()
+                    .set(RefreshToken::getRevoked, 1)
+                    .eq(RefreshToken::getTokenId, tokenId));
+        }
+    }
+
+    @Override
+    public ConsumeResult consume(String tokenId) {
+        int updated = refreshTokenMapper.update(null, new LambdaUpdateWrapper<RefreshToken>()
+                .set(RefreshToken::getUsed, 1)
+                .eq(RefreshToken::getTokenId, tokenId)
+                .eq(RefreshToken::getUsed, 0)
+                .eq(RefreshToken::getRevoked, 0));
+        if (updated > 0) {
+            return isFamilyRevokedByToken(tokenId) ? ConsumeResult.REVOKED : ConsumeResult.CONSUMED;
+        }
+
+        RefreshToken refreshToken = refreshTokenMapper.selectById(tokenId);
+        if (refreshToken == null) {
+            return ConsumeResult.NOT_FOUND;
+        }
+        return Integer.valueOf(1).equals(refreshToken.getRevoked()) ? ConsumeResult.REVOKED : ConsumeResult.REUSED;
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        refreshTokenMapper.update(null, new LambdaUpdateWrapper<RefreshToken>()
+                .set(RefreshToken::getRevoked, 1)
+                .eq(RefreshToken::getFamilyId, familyId));
+    }
+
+    @Override
+    public void deleteExpired(long now) {
+        refreshTokenMapper.delete(new LambdaQueryWrapper<RefreshToken>()
+                .le(RefreshToken::getExpireTime, toDateTime(now)));
+    }
+
+    private boolean isFamilyRevoked(String familyId) {
+        return refreshTokenMapper.selectCount(new LambdaQueryWrapper<RefreshToken>()
+                .eq(RefreshToken::getFamilyId, familyId)
+                .eq(RefreshToken::getRevoked, 1)) > 0;
+    }
+
+    private boolean isFamilyRevokedByToken(String tokenId) {
+        return refreshTokenMapper.selectCount(new LambdaQueryWrapper<RefreshToken>()
+                .apply("family_id = (SELECT family_id FROM sys_refresh_token WHERE token_id = {0})", tokenId)
+                .eq(RefreshToken::getRevoked, 1)) > 0;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
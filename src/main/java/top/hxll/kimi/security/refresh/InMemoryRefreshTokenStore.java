@@ -0,0 +1,82 @@
+package top.hxll.kimi.security.refresh;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内刷新令牌存储
+ * 适用于单节点部署和测试，重启后已签发的刷新令牌失效
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.refresh-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    /**
+     * 令牌ID -> 令牌状态
+     */
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * 令牌族 -> 族内最晚过期时间（毫秒）
+     */
+    private final Map<String, Long> families = new ConcurrentHashMap<>();
+
+    /**
+     * 已吊销的令牌族 -> 过期时间（毫秒）
+     */
+    private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(String tokenId, String familyId, String username, long expiresAt) {
+        families.merge(familyId, expiresAt, Math::max);
+        tokens.put(tokenId, new Entry(familyId, expiresAt));
+    }
+
+    @Override
+    public ConsumeResult consume(String tokenId) {
+        Entry entry = tokens.get(tokenId);
+        if (entry == null) {
+            return ConsumeResult.NOT_FOUND;
+        }
+        if (revokedFamilies.containsKey(entry.familyId)) {
+            return ConsumeResult.REVOKED;
+        }
+        return entry.used.compareAndSet(false, true) ? ConsumeResult.CONSUMED : ConsumeResult.REUSED;
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        Long expiresAt = families.get(familyId);
+        if (expiresAt != null) {
+            revokedFamilies.merge(familyId, expiresAt, Math::max);
+        }
+    }
+
+    @Override
+    public void deleteExpired(long now) {
+        tokens.values().removeIf(entry -> entry.expiresAt <= now);
+        families.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedFamilies.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private static final class Entry {
+
+        final String familyId;
+
+        final long expiresAt;
+
+        final AtomicBoolean used = new AtomicBoolean();
+
+        Entry(String familyId, long expiresAt) {
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package top.hxll.kimi.security.refresh;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import top.hxll.kimi.common.exception.TokenException;
+import top.hxll.kimi.security.util.JwtUtils;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * 刷新令牌服务
+ * 每次刷新都签发新的刷新令牌并作废旧令牌；同一令牌被再次使用时视为泄露，吊销整个令牌族
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenStore refreshTokenStore;
+
+    private final JwtUtils jwtUtils;
+
+    @Value("${jwt.refresh-expiration:604800}")
+    private int jwtRefreshExpiration;
+
+    /**
+     * 登录时签发刷新令牌，开启新的令牌族
+     */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * 使用刷新令牌并签发同一令牌族的新刷新令牌
+     *
+     * @param claims 已验证签名的刷新令牌声明
+     * @throws TokenException 令牌不是刷新令牌、已被使用或已被吊销时抛出
+     */
+    public String rotate(Claims claims) {
+        String tokenId = claims.getId();
+        String familyId = claims.get(JwtUtils.CLAIM_FAMILY_ID, String.class);
+        if (!JwtUtils.TOKEN_TYPE_REFRESH.equals(claims.get(JwtUtils.CLAIM_TOKEN_TYPE, String.class))
+                || tokenId == null || familyId == null) {
+            throw new TokenException("刷新令牌无效，请重新登录");
+        }
+
+        ConsumeResult result = refreshTokenStore.consume(tokenId);
+        switch (result) {
+            case CONSUMED:
+                return issue(claims.getSubject(), familyId);
+            case REUSED:
+                refreshTokenStore.revokeFamily(familyId);
+                log.warn("Refresh token reuse detected, family revoked: user={}, family={}",
+                        claims.getSubject(), familyId);
+                throw new TokenException("刷新令牌已被使用，请重新登录");
+            default:
+                throw new TokenException("刷新令牌已失效，请重新登录");
+        }
+    }
+
+    /**
+     * 吊销刷新令牌所属的令牌族（用于登出）
+     */
+    public void revoke(Claims claims) {
+        String familyId = claims.get(JwtUtils.CLAIM_FAMILY_ID, String.class);
+        if (familyId != null) {
+            refreshTokenStore.revokeFamily(familyId);
+        }
+    }
+
+    /**
+     * 清理过期的刷新令牌记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-sweep-interval:3600000}")
+    public void deleteExpired() {
+        try {
+            refreshTokenStore.deleteExpired(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("Failed to delete expired refresh tokens: {}", e.getMessage());
+        }
+    }
+
+    private String issue(String username, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + jwtRefreshExpiration * 1000L;
+        refreshTokenStore.save(tokenId, familyId, username, expiresAt);
+        return jwtUtils.generateRefreshToken(username, tokenId, familyId, new Date(expiresAt));
+    }
+}
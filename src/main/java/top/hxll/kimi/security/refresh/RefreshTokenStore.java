@@ -0,0 +1,35 @@
+package top.hxll.kimi.security.refresh;
+
+/**
+ * 刷新令牌存储
+ * 按令牌ID（jti）记录每个已签发刷新令牌的状态，同一次登录轮换出的令牌属于同一令牌族
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * 保存新签发的刷新令牌
+     *
+     * @param expiresAt 过期时间（毫秒时间戳）
+     */
+    void save(String tokenId, String familyId, String username, long expiresAt);
+
+    /**
+     * 使用刷新令牌，每个令牌只能成功使用一次
+     */
+    ConsumeResult consume(String tokenId);
+
+    /**
+     * 吊销整个令牌族
+     */
+    void revokeFamily(String familyId);
+
+    /**
+     * 删除已过期的令牌记录
+     *
+     * @param now 当前时间（毫秒时间戳）
+     */
+    void deleteExpired(long now);
+}
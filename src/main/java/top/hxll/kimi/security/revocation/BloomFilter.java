@@ -0,0 +1,84 @@
+package top.hxll.kimi.security.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器
+ * 查询只做k次位探测，不产生对象分配；写入需由调用方串行化
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预期元素数量
+     * @param falsePositiveRate  期望误判率
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    /**
+     * 加入元素
+     */
+    public void put(CharSequence value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            int word = index >>> 6;
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 元素是否可能存在，返回false时一定不存在
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a 64位哈希，逐字符计算，不产生中间对象
+     */
+    private static long hash64(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // 末尾再做一次混合，保证高低32位都分布均匀
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+}
@@ -0,0 +1,51 @@
+package top.hxll.kimi.security.revocation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内吊销记录存储
+ * 适用于单节点部署和测试，重启后记录丢失
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final ConcurrentSkipListMap<Long, RevocationEntry> entries = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 已拉取到的序号
+     */
+    private volatile long position;
+
+    @Override
+    public void save(RevocationEntry entry) {
+        entries.put(sequence.incrementAndGet(), entry);
+    }
+
+    @Override
+    public synchronized List<RevocationEntry> pollChanges() {
+        ConcurrentNavigableMap<Long, RevocationEntry> tail = entries.tailMap(position, false);
+        List<RevocationEntry> changes = new ArrayList<>(tail.values());
+        if (!tail.isEmpty()) {
+            position = tail.lastKey();
+        }
+        return changes;
+    }
+
+    @Override
+    public void deleteExpired(long now) {
+        entries.values().removeIf(entry -> entry.getExpiresAt() <= now);
+    }
+}
@@ -0,0 +1,58 @@
+package top.hxll.kimi.security.revocation;
+
+import lombok.Getter;
+
+/**
+ * 吊销条目
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Getter
+public final class RevocationEntry {
+
+    /**
+     * 单个令牌吊销
+     */
+    public static final int TYPE_TOKEN = 1;
+
+    /**
+     * 用户全部令牌吊销
+     */
+    public static final int TYPE_USER = 2;
+
+    /**
+     * 吊销类型
+     */
+    private final int type;
+
+    /**
+     * 令牌ID（jti）或用户名
+     */
+    private final String key;
+
+    /**
+     * 用户吊销时间点（毫秒），仅用户吊销有效
+     */
+    private final long notBefore;
+
+    /**
+     * 条目过期时间（毫秒时间戳）
+     */
+    private final long expiresAt;
+
+    public RevocationEntry(int type, String key, long notBefore, long expiresAt) {
+        this.type = type;
+        this.key = key;
+        this.notBefore = notBefore;
+        this.expiresAt = expiresAt;
+    }
+
+    public static RevocationEntry ofToken(String tokenId, long expiresAt) {
+        return new RevocationEntry(TYPE_TOKEN, tokenId, 0L, expiresAt);
+    }
+
+    public static RevocationEntry ofUser(String username, long notBefore, long expiresAt) {
+        return new RevocationEntry(TYPE_USER, username, notBefore, expiresAt);
+    }
+}
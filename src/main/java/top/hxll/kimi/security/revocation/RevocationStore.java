@@ -0,0 +1,31 @@
+package top.hxll.kimi.security.revocation;
+
+import java.util.List;
+
+/**
+ * 吊销记录存储
+ * 用于持久化吊销记录，并在多节点之间同步
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+public interface RevocationStore {
+
+    /**
+     * 保存吊销记录
+     */
+    void save(RevocationEntry entry);
+
+    /**
+     * 拉取上次调用以来新增的吊销记录（首次调用返回全部未过期记录）
+     * 返回的记录可能与已拉取的重复，调用方需幂等处理
+     */
+    List<RevocationEntry> pollChanges();
+
+    /**
+     * 删除已过期的记录
+     *
+     * @param now 当前时间（毫秒时间戳）
+     */
+    void deleteExpired(long now);
+}
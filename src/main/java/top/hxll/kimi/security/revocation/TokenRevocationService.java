@@ -0,0 +1,186 @@
+package top.hxll.kimi.security.revocation;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌吊销服务
+ * 支持按令牌ID（jti）吊销单个令牌，以及按用户设置吊销时间点使其之前签发的令牌全部失效。
+ * 令牌ID先经布隆过滤器判断，未吊销的令牌只需几次位探测；条目在令牌过期后自动清理
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevocationStore revocationStore;
+
+    @Value("${jwt.expiration:86400}")
+    private int jwtExpiration;
+
+    @Value("${jwt.refresh-expiration:604800}")
+    private int jwtRefreshExpiration;
+
+    @Value("${jwt.revocation.bloom-capacity:100000}")
+    private int bloomCapacity;
+
+    /**
+     * 已吊销令牌：jti -> 过期时间（毫秒）
+     */
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 用户吊销时间点：用户名 -> 吊销条目
+     */
+    private final ConcurrentHashMap<String, RevocationEntry> userRevocations = new ConcurrentHashMap<>();
+
+    /**
+     * 写入和重建布隆过滤器的锁，查询不加锁
+     */
+    private final Object filterLock = new Object();
+
+    private volatile BloomFilter tokenFilter;
+
+    private int filterCapacity;
+
+    @PostConstruct
+    public void init() {
+        synchronized (filterLock) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * 判断令牌是否已被吊销
+     */
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+
+        String username = claims.getSubject();
+        if (username != null && !userRevocations.isEmpty()) {
+            RevocationEntry entry = userRevocations.get(username);
+            if (entry != null) {
+                Date issuedAt = claims.getIssuedAt();
+                return issuedAt == null || issuedAt.getTime() < entry.getNotBefore();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 吊销单个令牌，记录保留到令牌过期
+     *
+     * @return 令牌缺少jti时无法单独吊销，返回false
+     */
+    public boolean revokeToken(Claims claims) {
+        String tokenId = claims.getId();
+        Date expiration = claims.getExpiration();
+        if (tokenId == null || expiration == null) {
+            log.warn("Token of user {} has no id or expiration, cannot be revoked individually", claims.getSubject());
+            return false;
+        }
+        RevocationEntry entry = RevocationEntry.ofToken(tokenId, expiration.getTime());
+        apply(entry);
+        revocationStore.save(entry);
+        log.info("Token revoked: user={}, jti={}", claims.getSubject(), tokenId);
+        return true;
+    }
+
+    /**
+     * 吊销用户当前时间之前签发的所有令牌（包括刷新令牌）
+     */
+    public void revokeUserTokens(String username) {
+        long now = System.currentTimeMillis();
+        long maxLifetime = Math.max(jwtExpiration, jwtRefreshExpiration) * 1000L;
+        // 令牌的 iat 只精确到秒，吊销时间点截断到秒，同一秒内随后签发的新令牌不会被误判为已吊销
+        long notBefore = now / 1000L * 1000L;
+        RevocationEntry entry = RevocationEntry.ofUser(username, notBefore, now + maxLifetime);
+        apply(entry);
+        revocationStore.save(entry);
+        log.info("All tokens revoked for user: {}", username);
+    }
+
+    /**
+     * 从存储拉取其他节点写入的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:10000}")
+    public void sync() {
+        try {
+            List<RevocationEntry> changes = revocationStore.pollChanges();
+            for (RevocationEntry entry : changes) {
+                apply(entry);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to sync token revocations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理已过期的吊销条目，并按剩余条目重建布隆过滤器
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation.purge-interval:300000}",
+            fixedDelayString = "${jwt.revocation.purge-interval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        userRevocations.values().removeIf(entry -> entry.getExpiresAt() <= now);
+        synchronized (filterLock) {
+            if (revokedTokens.values().removeIf(expiresAt -> expiresAt <= now)) {
+                rebuildFilter();
+            }
+        }
+        try {
+            revocationStore.deleteExpired(now);
+        } catch (Exception e) {
+            log.warn("Failed to delete expired token revocations: {}", e.getMessage());
+        }
+    }
+
+    private void apply(RevocationEntry entry) {
+        if (entry.getExpiresAt() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entry.getType() == RevocationEntry.TYPE_TOKEN) {
+            synchronized (filterLock) {
+                revokedTokens.merge(entry.getKey(), entry.getExpiresAt(), Math::max);
+                if (revokedTokens.size() > filterCapacity) {
+                    rebuildFilter();
+                } else {
+                    tokenFilter.put(entry.getKey());
+                }
+            }
+        } else {
+            userRevocations.merge(entry.getKey(), entry,
+                    (current, update) -> update.getNotBefore() >= current.getNotBefore() ? update : current);
+        }
+    }
+
+    /**
+     * 重建布隆过滤器，需持有filterLock
+     */
+    private void rebuildFilter() {
+        int capacity = Math.max(bloomCapacity, revokedTokens.size() * 2);
+        BloomFilter filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        for (String tokenId : revokedTokens.keySet()) {
+            filter.put(tokenId);
+        }
+        this.filterCapacity = capacity;
+        this.tokenFilter = filter;
+    }
+}
@@ -5,8 +5,10 @@ import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
 import top.hxll.kimi.entity.User;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,6 +37,12 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    /**
+     * 加载用户详情时的授权版本，签发令牌时写入令牌
+     */
+    @JsonIgnore
+    private long authorizationVersion;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
                           String phone, String nickname, String avatar, Integer status,
                           Collection<? extends GrantedAuthority> authorities) {
@@ -78,6 +86,37 @@ public class UserDetailsImpl implements UserDetails {
         );
     }
 
+    /**
+     * 从已验证的令牌声明创建UserDetailsImpl（不查询数据库）
+     *
+     * @param id          用户ID
+     * @param username    用户名
+     * @param authorities 逗号分隔的角色和权限编码
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username, String authorities) {
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>();
+        for (String authority : StringUtils.commaDelimitedListToStringArray(authorities)) {
+            if (!authority.isEmpty()) {
+                grantedAuthorities.add(new SimpleGrantedAuthority(authority));
+            }
+        }
+
+        return fromClaims(id, username, grantedAuthorities);
+    }
+
+    /**
+     * 从已验证的令牌声明创建UserDetailsImpl（不查询数据库）
+     *
+     * @param id          用户ID
+     * @param username    用户名
+     * @param authorities 已解码的权限集合
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username,
+                                             Collection<? extends GrantedAuthority> authorities) {
+        // 令牌签发时用户处于启用状态，密码不参与令牌认证
+        return new UserDetailsImpl(id, username, null, null, null, null, null, 1, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
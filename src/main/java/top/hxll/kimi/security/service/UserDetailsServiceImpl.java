@@ -1,17 +1,34 @@
 package top.hxll.kimi.security.service;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import top.hxll.kimi.common.cache.ExpiringLruCache;
 import top.hxll.kimi.entity.User;
 import top.hxll.kimi.mapper.UserMapper;
+import top.hxll.kimi.mapper.UserRoleMapper;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthoritySet;
+import top.hxll.kimi.security.authority.AuthorizationVersionService;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Spring Security 用户详情服务实现类
+ * 构建好的用户详情快照按用户名缓存，授权变更事件提交后精确失效受影响用户；
+ * 读取时校验快照的授权版本，其他节点上的授权变更同步到本节点后快照即失效
  *
  * @author kimi
  * @since 1.0.0
@@ -22,22 +39,109 @@ import top.hxll.kimi.mapper.UserMapper;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserMapper userMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final AuthorityCatalog authorityCatalog;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final RbacCatalog rbacCatalog;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${security.user-cache.ttl:600}")
+    private int cacheTtlSeconds;
+
+    /**
+     * 用户详情快照缓存：用户名 -> UserDetailsImpl
+     */
+    private ExpiringLruCache<String, UserDetailsImpl> snapshots;
+
+    @PostConstruct
+    public void init() {
+        this.snapshots = new ExpiringLruCache<>(cacheMaxSize, cacheTtlSeconds * 1000L);
+    }
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 查询用户信息（包含角色和权限）
-        User user = userMapper.selectUserWithRolesAndPermissions(username);
+        UserDetailsImpl cached = snapshots.get(username);
+        if (cached != null) {
+            // 其他节点的授权变更不会失效本节点的快照，按授权版本判断快照是否仍然可用
+            if (authorizationVersionService.isCurrent(cached.getId(), cached.getAuthorizationVersion())) {
+                return cached;
+            }
+            snapshots.remove(username);
+        }
+
+        UserDetailsImpl userDetails = loadFromDatabase(username);
+        // 加载期间发生授权变更时不缓存，避免失效之后写入的旧快照在整个有效期内被复用
+        if (authorizationVersionService.isCurrent(userDetails.getId(), userDetails.getAuthorizationVersion())) {
+            snapshots.put(username, userDetails);
+        }
+        return userDetails;
+    }
+
+    /**
+     * 从数据库加载用户详情
+     */
+    private UserDetailsImpl loadFromDatabase(String username) {
+        // 查询前读取授权版本，查询期间发生的变更会使该版本下签发的令牌失效
+        long version = authorizationVersionService.currentVersion();
+
+        // 分别查询用户行和角色ID，角色和权限从角色权限目录解析，避免用户×角色×权限的连接结果
+        User user = userMapper.selectOne(new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getUsername, User::getPassword, User::getEmail, User::getPhone,
+                        User::getNickname, User::getAvatar, User::getStatus)
+                .eq(User::getUsername, username)
+                .eq(User::getStatus, 1));
         if (user == null) {
             log.error("User not found: {}", username);
             throw new UsernameNotFoundException("用户不存在: " + username);
         }
 
-        // 如果权限列表为空，查询权限信息
-        if (user.getPermissions() == null || user.getPermissions().isEmpty()) {
-            user.setPermissions(userMapper.selectPermissionsByUserId(user.getId()));
+        List<Long> roleIds = userRoleMapper.selectRoleIdsByUserId(user.getId());
+        RbacSnapshot rbac = rbacCatalog.getSnapshot();
+        user.setRoles(rbac.getEnabledRoles(roleIds));
+        user.setPermissions(rbac.getPermissionCodes(roleIds));
+
+        // 权限编译为按权限目录下标的位图集合，方法安全表达式按位判断
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        AuthoritySet authorities = authorityCatalog.toAuthoritySet(userDetails.getAuthorities());
+        if (authorities != null) {
+            userDetails.setAuthorities(authorities);
+        }
+        userDetails.setAuthorizationVersion(version);
+        return userDetails;
+    }
+
+    /**
+     * 授权变更事务提交后，推进授权版本并失效受影响用户的快照
+     * 角色变更只影响持有该角色的用户，权限变更（编码、状态可能影响所有令牌中的权限）推进全局版本
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        Set<Long> affectedUserIds = new HashSet<>(event.getUserIds());
+        if (!event.getRoleIds().isEmpty()) {
+            affectedUserIds.addAll(userRoleMapper.selectUserIdsByRoleIds(event.getRoleIds()));
+        }
+        if (!event.getPermissionIds().isEmpty()) {
+            affectedUserIds.addAll(userRoleMapper.selectUserIdsByPermissionIds(event.getPermissionIds()));
+        }
+        // 先推进版本再失效快照：推进之后完成的加载不会再写入缓存，推进之前写入的快照由失效清除
+        if (!event.getPermissionIds().isEmpty()) {
+            authorizationVersionService.bumpAll();
+        } else {
+            authorizationVersionService.bumpUsers(affectedUserIds);
         }
+        evictUsers(affectedUserIds);
+    }
 
-        return UserDetailsImpl.build(user);
+    /**
+     * 失效指定用户的快照
+     */
+    public void evictUsers(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        int evicted = snapshots.removeIf((username, details) -> userIds.contains(details.getId()));
+        log.debug("Evicted {} user details snapshot(s) for users: {}", evicted, userIds);
     }
-}
\ No newline at end of file
+}
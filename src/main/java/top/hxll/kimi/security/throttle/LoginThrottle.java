@@ -0,0 +1,220 @@
+package top.hxll.kimi.security.throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import top.hxll.kimi.common.cache.ExpiringLruCache;
+import top.hxll.kimi.common.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * 登录限流器
+ * 按用户名和客户端IP分别统计滑动窗口内的失败次数，超过阈值后按指数退避封禁。
+ * 在认证之前检查，被封禁的请求不会查询数据库或计算BCrypt；状态保存在有界LRU中，内存占用固定
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    @Value("${security.login-throttle.enabled:true}")
+    private boolean enabled;
+
+    private final long windowMillis;
+
+    private final int maxUserFailures;
+
+    private final int maxIpFailures;
+
+    private final long baseBlockMillis;
+
+    private final long maxBlockMillis;
+
+    private final long entryTtlMillis;
+
+    private final ExpiringLruCache<String, FailureWindow> userFailures;
+
+    private final ExpiringLruCache<String, FailureWindow> ipFailures;
+
+    private final Counter userFailureCounter;
+    private final Counter ipFailureCounter;
+    private final Counter userBlockCounter;
+    private final Counter ipBlockCounter;
+    private final Counter rejectedCounter;
+
+    public LoginThrottle(@Value("${security.login-throttle.window:300}") int windowSeconds,
+                         @Value("${security.login-throttle.max-user-failures:5}") int maxUserFailures,
+                         @Value("${security.login-throttle.max-ip-failures:20}") int maxIpFailures,
+                         @Value("${security.login-throttle.base-block:30}") int baseBlockSeconds,
+                         @Value("${security.login-throttle.max-block:3600}") int maxBlockSeconds,
+                         @Value("${security.login-throttle.max-entries:100000}") int maxEntries,
+                         MeterRegistry meterRegistry) {
+        this.windowMillis = windowSeconds * 1000L;
+        this.maxUserFailures = maxUserFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.baseBlockMillis = baseBlockSeconds * 1000L;
+        this.maxBlockMillis = maxBlockSeconds * 1000L;
+        // 条目至少保留两个窗口加最长封禁时间，期间持续失败会不断延长
+        this.entryTtlMillis = 2 * windowMillis + maxBlockMillis;
+        this.userFailures = new ExpiringLruCache<>(maxEntries, entryTtlMillis);
+        this.ipFailures = new ExpiringLruCache<>(maxEntries, entryTtlMillis);
+
+        this.userFailureCounter = failureCounter(meterRegistry, "user");
+        this.ipFailureCounter = failureCounter(meterRegistry, "ip");
+        this.userBlockCounter = blockCounter(meterRegistry, "user");
+        this.ipBlockCounter = blockCounter(meterRegistry, "ip");
+        this.rejectedCounter = Counter.builder("security.login.throttle.rejected")
+                .description("Login attempts rejected by the throttle")
+                .register(meterRegistry);
+        Gauge.builder("security.login.throttle.entries", this, t -> t.userFailures.size() + t.ipFailures.size())
+                .description("Usernames and IPs currently tracked by the login throttle")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 检查是否允许登录尝试
+     *
+     * @throws BusinessException 用户名或IP处于封禁期时抛出，错误码429
+     */
+    public void checkAllowed(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long retryAfter = Math.max(blockedFor(userFailures, normalize(username), now), blockedFor(ipFailures, ip, now));
+        if (retryAfter > 0) {
+            rejectedCounter.increment();
+            long seconds = (retryAfter + 999) / 1000;
+            throw new BusinessException(429, "登录尝试过于频繁，请" + seconds + "秒后重试");
+        }
+    }
+
+    /**
+     * 记录一次登录失败
+     */
+    public void recordFailure(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        userFailureCounter.increment();
+        if (record(userFailures, normalize(username), maxUserFailures, now)) {
+            userBlockCounter.increment();
+            log.warn("Login blocked for username: {}", username);
+        }
+        ipFailureCounter.increment();
+        if (record(ipFailures, ip, maxIpFailures, now)) {
+            ipBlockCounter.increment();
+            log.warn("Login blocked for ip: {}", ip);
+        }
+    }
+
+    /**
+     * 登录成功后清除该用户名的失败记录，IP记录保留，防止撞库时穿插成功登录绕过限制
+     */
+    public void recordSuccess(String username) {
+        if (enabled) {
+            userFailures.remove(normalize(username));
+        }
+    }
+
+    private long blockedFor(ExpiringLruCache<String, FailureWindow> cache, String key, long now) {
+        if (key == null) {
+            return 0;
+        }
+        FailureWindow window = cache.get(key);
+        return window != null ? window.blockedFor(now) : 0;
+    }
+
+    /**
+     * @return 本次失败是否触发了封禁
+     */
+    private boolean record(ExpiringLruCache<String, FailureWindow> cache, String key, int maxFailures, long now) {
+        if (key == null) {
+            return false;
+        }
+        FailureWindow window = cache.computeIfAbsent(key, k -> new FailureWindow(now));
+        boolean blocked = window.recordFailure(now, maxFailures);
+        // 延长条目存活时间，持续攻击的key不会被过期清理
+        cache.put(key, window, now + entryTtlMillis);
+        return blocked;
+    }
+
+    private static String normalize(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("security.login.failures")
+                .description("Failed login attempts")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    private static Counter blockCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("security.login.blocks")
+                .description("Login blocks triggered by repeated failures")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 失败计数窗口
+     * 用当前窗口和上一窗口的计数按时间比例加权，近似滑动窗口
+     */
+    private final class FailureWindow {
+
+        private long windowStart;
+
+        private int currentCount;
+
+        private int previousCount;
+
+        private long blockedUntil;
+
+        /**
+         * 已触发的封禁次数，决定下次封禁时长
+         */
+        private int blockLevel;
+
+        FailureWindow(long now) {
+            this.windowStart = now;
+        }
+
+        synchronized long blockedFor(long now) {
+            return blockedUntil > now ? blockedUntil - now : 0;
+        }
+
+        synchronized boolean recordFailure(long now, int maxFailures) {
+            roll(now);
+            currentCount++;
+            double elapsed = (double) (now - windowStart) / windowMillis;
+            double weighted = previousCount * (1 - elapsed) + currentCount;
+            if (weighted <= maxFailures || blockedUntil > now) {
+                return false;
+            }
+            long duration = Math.min(maxBlockMillis, baseBlockMillis << Math.min(blockLevel, MAX_BACKOFF_SHIFT));
+            blockedUntil = now + duration;
+            blockLevel++;
+            return true;
+        }
+
+        private void roll(long now) {
+            long elapsed = now - windowStart;
+            if (elapsed < windowMillis) {
+                return;
+            }
+            previousCount = elapsed < 2 * windowMillis ? currentCount : 0;
+            currentCount = 0;
+            windowStart = now - (elapsed % windowMillis);
+        }
+    }
+}
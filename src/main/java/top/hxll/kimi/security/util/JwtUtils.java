@@ -1,44 +1,152 @@
 package top.hxll.kimi.security.util;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import top.hxll.kimi.common.cache.ExpiringLruCache;
+import top.hxll.kimi.common.exception.TokenException;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthoritySet;
+import top.hxll.kimi.security.authority.AuthorizationVersionService;
+import top.hxll.kimi.security.key.JwtKeyManager;
+import top.hxll.kimi.security.key.JwtSigningKey;
+import top.hxll.kimi.security.revocation.TokenRevocationService;
+import top.hxll.kimi.security.service.UserDetailsImpl;
 
-import javax.crypto.SecretKey;
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * JWT工具类
+ * 解析器在启动时构建一次，按kid从密钥管理器获取验签密钥；已验证的令牌按摘要缓存至其过期时间，验证失败的令牌短暂负缓存。
+ * 每个令牌带有唯一ID（jti），解析时检查吊销状态
  *
  * @author kimi
  * @since 1.0.0
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
-    @Value("${jwt.secret:mySecretKeyForKimiApplicationWithSpringBootAndSecurityFramework}")
-    private String jwtSecret;
+    /**
+     * 用户ID声明
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    /**
+     * 权限声明（逗号分隔的角色和权限编码）
+     */
+    public static final String CLAIM_AUTHORITIES = "auth";
+
+    /**
+     * 紧凑权限声明：权限目录版本
+     */
+    public static final String CLAIM_AUTHORITY_VERSION = "pv";
+
+    /**
+     * 紧凑权限声明：按权限目录下标编码的位图（base64url）
+     */
+    public static final String CLAIM_AUTHORITY_BITS = "ab";
+
+    /**
+     * 授权版本声明：签发时的授权版本，版本前移后令牌中的权限不再可信
+     */
+    public static final String CLAIM_AUTHORIZATION_VERSION = "av";
+
+    /**
+     * 令牌类型声明
+     */
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+
+    /**
+     * 刷新令牌族声明
+     */
+    public static final String CLAIM_FAMILY_ID = "fid";
+
+    /**
+     * 令牌类型：刷新令牌
+     */
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final JwtKeyManager jwtKeyManager;
+
+    private final AuthorityCatalog authorityCatalog;
+
+    private final AuthorizationVersionService authorizationVersionService;
 
     @Value("${jwt.expiration:86400}")
     private int jwtExpirationMs;
 
-    @Value("${jwt.refresh-expiration:604800}")
-    private int jwtRefreshExpirationMs;
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${jwt.cache.negative-ttl:30}")
+    private int negativeTtlSeconds;
 
     /**
-     * 生成JWT密钥
+     * 是否使用紧凑权限声明（权限目录版本 + 位图）代替逗号分隔的权限字符串
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.compact-authorities:false}")
+    private boolean compactAuthorities;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private JwtParser jwtParser;
+
+    /**
+     * 已验证令牌缓存：令牌摘要 -> Claims，过期时间为令牌的exp
+     */
+    private ExpiringLruCache<String, Claims> verifiedTokens;
+
+    /**
+     * 验证失败令牌的负缓存：令牌摘要 -> 标记
+     */
+    private ExpiringLruCache<String, Boolean> rejectedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(jwtKeyManager)
+                .build();
+        this.verifiedTokens = new ExpiringLruCache<>(cacheMaxSize, jwtExpirationMs * 1000L);
+        this.rejectedTokens = new ExpiringLruCache<>(Math.max(16, cacheMaxSize / 4), negativeTtlSeconds * 1000L);
+    }
+
+    /**
+     * 使用当前签名密钥签名，非旧版密钥时在令牌头中写入kid
+     */
+    private String sign(JwtBuilder builder) {
+        JwtSigningKey key = jwtKeyManager.getCurrentKey();
+        if (key.getKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.getKeyId());
+        }
+        return builder.signWith(key.getSigningKey(), key.getAlgorithm()).compact();
     }
 
     /**
@@ -46,103 +154,155 @@ public class JwtUtils {
      */
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername(), authentication.getAuthorities());
+        if (userPrincipal instanceof UserDetailsImpl) {
+            UserDetailsImpl userDetails = (UserDetailsImpl) userPrincipal;
+            // 使用加载用户详情时的授权版本，加载之后发生的变更会使该令牌中的权限失效
+            long version = userDetails.getAuthorizationVersion() > 0
+                    ? userDetails.getAuthorizationVersion() : authorizationVersionService.currentVersion();
+            return generateTokenFromUsername(userDetails.getUsername(), userDetails.getId(),
+                    authentication.getAuthorities(), version);
+        }
+        return generateTokenFromUsername(userPrincipal.getUsername(), null, authentication.getAuthorities());
     }
 
     /**
      * 从用户名生成JWT令牌
      */
     public String generateTokenFromUsername(String username, java.util.Collection<? extends GrantedAuthority> authorities) {
+        return generateTokenFromUsername(username, null, authorities);
+    }
+
+    /**
+     * 从用户名和用户ID生成JWT令牌
+     */
+    public String generateTokenFromUsername(String username, Long userId,
+                                            java.util.Collection<? extends GrantedAuthority> authorities) {
+        return generateTokenFromUsername(username, userId, authorities, authorizationVersionService.currentVersion());
+    }
+
+    private String generateTokenFromUsername(String username, Long userId,
+                                             java.util.Collection<? extends GrantedAuthority> authorities,
+                                             long authorizationVersion) {
         Map<String, Object> claims = new HashMap<>();
 
-        // 添加权限信息
-        String authoritiesString = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
-        claims.put("auth", authoritiesString);
+        // 添加用户ID和授权版本，版本未变化时请求认证直接使用令牌中的权限
+        if (userId != null) {
+            claims.put(CLAIM_USER_ID, userId);
+            claims.put(CLAIM_AUTHORIZATION_VERSION, authorizationVersion);
+        }
 
-        return Jwts.builder()
+        // 添加权限信息，紧凑模式下目录中缺少某个权限时回退为权限字符串
+        AuthoritySet authoritySet = compactAuthorities ? authorityCatalog.toAuthoritySet(authorities) : null;
+        if (authoritySet != null) {
+            claims.put(CLAIM_AUTHORITY_VERSION, authoritySet.getVersion());
+            claims.put(CLAIM_AUTHORITY_BITS, authoritySet.encode());
+        } else {
+            String authoritiesString = authorities.stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(","));
+            claims.put(CLAIM_AUTHORITIES, authoritiesString);
+        }
+
+        return sign(Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs * 1000L))
-                .signWith(getSigningKey())
-                .compact();
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs * 1000L)));
     }
 
     /**
      * 生成刷新令牌
      */
-    public String generateRefreshToken(String username) {
-        return Jwts.builder()
+    public String generateRefreshToken(String username, String tokenId, String familyId, Date expiration) {
+        return sign(Jwts.builder()
+                .setId(tokenId)
                 .setSubject(username)
+                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH)
+                .claim(CLAIM_FAMILY_ID, familyId)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtRefreshExpirationMs * 1000L))
-                .signWith(getSigningKey())
-                .compact();
+                .setExpiration(expiration));
+    }
+
+    /**
+     * 验证并解析JWT令牌，每个令牌只做一次签名校验
+     *
+     * @return 令牌的Claims，令牌无效或已过期时返回null
+     */
+    public Claims parseClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+
+        String digest = digest(token);
+        Claims claims = verifiedTokens.get(digest);
+        if (claims != null) {
+            return checkRevoked(claims);
+        }
+        if (rejectedTokens.get(digest) != null) {
+            return null;
+        }
+
+        claims = verify(token);
+        if (claims == null) {
+            rejectedTokens.put(digest, Boolean.TRUE);
+            return null;
+        }
+
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(digest, claims, expiration.getTime());
+        } else {
+            verifiedTokens.put(digest, claims);
+        }
+        return checkRevoked(claims);
+    }
+
+    /**
+     * 从请求头中解析JWT令牌
+     */
+    public String getJwtFromRequest(HttpServletRequest request) {
+        String headerAuth = request.getHeader("Authorization");
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith(BEARER_PREFIX)) {
+            return headerAuth.substring(BEARER_PREFIX.length());
+        }
+        return null;
     }
 
     /**
      * 从JWT令牌获取用户名
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            throw new TokenException("令牌无效或已过期");
+        }
+        return claims.getSubject();
     }
 
     /**
      * 验证JWT令牌
      */
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
+        return parseClaims(authToken) != null;
     }
 
     /**
      * 检查令牌是否过期
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        Claims claims = parseClaims(token);
+        return claims == null || claims.getExpiration().before(new Date());
     }
 
     /**
      * 从令牌获取过期时间
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            throw new TokenException("令牌无效或已过期");
+        }
         return claims.getExpiration();
     }
 
@@ -153,4 +313,47 @@ public class JwtUtils {
         String username = getUserNameFromJwtToken(token);
         return generateTokenFromUsername(username, null);
     }
-}
\ No newline at end of file
+
+    /**
+     * 校验签名并解析令牌
+     */
+    private Claims verify(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (SecurityException e) {
+            log.error("Invalid JWT signature: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.error("JWT validation failed: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 吊销检查放在缓存之后且不缓存结果，吊销立即生效
+     */
+    private Claims checkRevoked(Claims claims) {
+        if (tokenRevocationService.isRevoked(claims)) {
+            log.debug("JWT token has been revoked: user={}, jti={}", claims.getSubject(), claims.getId());
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 计算令牌摘要（SHA-256），作为缓存key，避免在缓存中保存令牌原文
+     */
+    private static String digest(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -3,6 +3,7 @@ package top.hxll.kimi.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import top.hxll.kimi.dto.PermissionDto;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
 import top.hxll.kimi.entity.Permission;
 
 import java.util.List;
@@ -57,9 +58,9 @@ public interface PermissionService {
     boolean deletePermission(Long id);
 
     /**
-     * 批量删除权限
+     * 批量删除权限，不可删除的权限逐个返回失败原因
      */
-    boolean deletePermissions(List<Long> ids);
+    BatchDeleteResp deletePermissions(List<Long> ids);
 
     /**
      * 启用/禁用权限
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import top.hxll.kimi.dto.RoleDto;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
 import top.hxll.kimi.entity.Role;
 
 import java.util.List;
@@ -71,9 +72,9 @@ public interface RoleService extends IService<Role> {
     boolean deleteRole(Long id);
 
     /**
-     * 批量删除角色
+     * 批量删除角色，不可删除的角色逐个返回失败原因
      */
-    boolean deleteRoles(List<Long> ids);
+    BatchDeleteResp deleteRoles(List<Long> ids);
 
     /**
      * 启用/禁用角色
@@ -86,10 +87,18 @@ public interface RoleService extends IService<Role> {
     List<Long> getRolePermissionIds(Long roleId);
 
     /**
-     * 更新角色权限
+     * 更新角色权限，与当前权限比较后只写入差异部分
      */
     boolean updateRolePermissions(Long roleId, List<Long> permissionIds);
 
+    /**
+     * 增量修改角色权限
+     *
+     * @param addPermissionIds    需要添加的权限ID
+     * @param removePermissionIds 需要移除的权限ID
+     */
+    boolean patchRolePermissions(Long roleId, List<Long> addPermissionIds, List<Long> removePermissionIds);
+
     /**
      * 获取角色统计信息
      */
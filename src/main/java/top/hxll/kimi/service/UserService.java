@@ -2,6 +2,7 @@ package top.hxll.kimi.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import top.hxll.kimi.common.CursorPage;
 import top.hxll.kimi.dto.*;
 import top.hxll.kimi.dto.req.auth.RegisterReq;
 import top.hxll.kimi.dto.req.user.PasswordChangeReq;
@@ -22,8 +23,10 @@ public interface UserService {
 
     /**
      * 用户注册
+     *
+     * @param encodedPassword 已编码的密码，由调用方在事务外计算，避免BCrypt计算期间占用数据库连接
      */
-    User register(RegisterReq registerReq);
+    User register(RegisterReq registerReq, String encodedPassword);
 
     /**
      * 修改密码
@@ -46,6 +49,18 @@ public interface UserService {
      */
     IPage<UserDto> getUserPage(Page<User> page, String keyword, Integer status);
 
+    /**
+     * 游标分页查询用户列表，按创建时间倒序
+     *
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     */
+    CursorPage<UserDto> getUserCursorPage(String cursor, int size, String keyword, Integer status);
+
+    /**
+     * 按用户名或昵称前缀联想用户
+     */
+    List<UserSuggestDto> suggestUsers(String prefix, int limit);
+
     /**
      * 更新用户基本信息
      */
@@ -1,21 +1,28 @@
 package top.hxll.kimi.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import top.hxll.kimi.common.page.PageTotalCounter;
 import top.hxll.kimi.dto.PermissionDto;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
 import top.hxll.kimi.entity.Permission;
-import top.hxll.kimi.entity.RolePermission;
 import top.hxll.kimi.mapper.PermissionMapper;
 import top.hxll.kimi.mapper.RolePermissionMapper;
+import top.hxll.kimi.security.authorization.UrlPermissionTrie;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
 import top.hxll.kimi.service.PermissionService;
 
 import java.time.LocalDateTime;
@@ -35,23 +42,14 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
 
     private final PermissionMapper permissionMapper;
     private final RolePermissionMapper rolePermissionMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RbacCatalog rbacCatalog;
+    private final PageTotalCounter pageTotalCounter;
 
     @Override
     public List<PermissionDto> getPermissionTree() {
-        // 查询所有权限
-        QueryWrapper<Permission> wrapper = new QueryWrapper<>();
-        wrapper.eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
-
-        List<Permission> permissions = permissionMapper.selectList(wrapper);
-
-        // 转换为DTO
-        List<PermissionDto> dtoList = permissions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-
-        // 构建树形结构
-        return buildPermissionTree(dtoList);
+        // 从目录的父子索引构建树形结构
+        return buildPermissionTree(rbacCatalog.getSnapshot(), 0L);
     }
 
     @Override
@@ -59,34 +57,27 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
         QueryWrapper<Permission> wrapper = new QueryWrapper<>();
 
         if (keyword != null && !keyword.trim().isEmpty()) {
-            wrapper.like("permission_name", keyword)
+            wrapper.and(wq -> wq.like("permission_name", keyword)
                    .or()
-                   .like("permission_code", keyword);
+                   .like("permission_code", keyword));
         }
 
         if (permissionType != null) {
             wrapper.eq("permission_type", permissionType);
         }
 
-        wrapper.eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
+        wrapper.orderByAsc("sort_order", "id");
 
-        IPage<Permission> permissionPage = permissionMapper.selectPage(page, wrapper);
-        IPage<PermissionDto> dtoPage = new Page<>();
-        dtoPage.setCurrent(permissionPage.getCurrent());
-        dtoPage.setSize(permissionPage.getSize());
-        dtoPage.setTotal(permissionPage.getTotal());
-        dtoPage.setRecords(permissionPage.getRecords().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList()));
+        IPage<Permission> permissionPage = pageTotalCounter.selectPage(page, "sys_permission",
+                PageTotalCounter.filterKey(keyword, permissionType),
+                p -> permissionMapper.selectPermissionListPage(p, wrapper), () -> permissionMapper.selectCount(wrapper));
 
-        return dtoPage;
+        return permissionPage.convert(this::convertToDto);
     }
 
     @Override
     public List<PermissionDto> getPermissionsByRoleId(Long roleId) {
-        List<Permission> permissions = permissionMapper.selectPermissionsByRoleId(roleId);
-        return permissions.stream()
+        return rbacCatalog.getSnapshot().getPermissionsByRole(roleId).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -98,10 +89,7 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
 
     @Override
     public Permission getPermissionByCode(String permissionCode) {
-        QueryWrapper<Permission> wrapper = new QueryWrapper<>();
-        wrapper.eq("permission_code", permissionCode)
-               .eq("deleted", 0);
-        return permissionMapper.selectOne(wrapper);
+        return rbacCatalog.getSnapshot().getPermissionByCode(permissionCode);
     }
 
     @Override
@@ -111,6 +99,7 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
         if (getPermissionByCode(permissionDto.getPermissionCode()) != null) {
             throw new RuntimeException("权限编码已存在");
         }
+        validatePath(permissionDto.getPath());
 
         Permission permission = new Permission();
         permission.setPermissionName(permissionDto.getPermissionName());
@@ -127,6 +116,7 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
         permission.setCreateTime(LocalDateTime.now());
 
         permissionMapper.insert(permission);
+        publishPermissionChanged(permission.getId());
         log.info("Permission created successfully: {}", permission.getPermissionCode());
         return permission;
     }
@@ -146,6 +136,7 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
                 throw new RuntimeException("权限编码已存在");
             }
         }
+        validatePath(permissionDto.getPath());
 
         permission.setPermissionName(permissionDto.getPermissionName());
         permission.setPermissionCode(permissionDto.getPermissionCode());
@@ -161,6 +152,7 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
         permission.setUpdateTime(LocalDateTime.now());
 
         permissionMapper.updateById(permission);
+        publishPermissionChanged(id);
         log.info("Permission updated successfully: {}", permission.getPermissionCode());
         return permission;
     }
@@ -168,41 +160,61 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
     @Override
     @Transactional
     public boolean deletePermission(Long id) {
-        Permission permission = permissionMapper.selectById(id);
-        if (permission == null) {
-            throw new RuntimeException("权限不存在");
+        BatchDeleteResp result = deletePermissions(Collections.singletonList(id));
+        if (!result.isAllDeleted()) {
+            throw new RuntimeException(result.getFailures().get(id));
         }
+        return true;
+    }
 
-        // 检查是否有子权限
-        List<Permission> children = permissionMapper.selectByParentId(id);
-        if (!CollectionUtils.isEmpty(children)) {
-            throw new RuntimeException("该权限存在子权限，不能删除");
+    @Override
+    @Transactional
+    public BatchDeleteResp deletePermissions(List<Long> ids) {
+        BatchDeleteResp result = new BatchDeleteResp();
+        if (CollectionUtils.isEmpty(ids)) {
+            return result;
+        }
+        Set<Long> requestedIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requestedIds.isEmpty()) {
+            return result;
         }
 
-        // 检查是否被角色使用
-        List<RolePermission> rolePermissions = rolePermissionMapper.selectList(
-                new QueryWrapper<RolePermission>().eq("permission_id", id));
-        if (!CollectionUtils.isEmpty(rolePermissions)) {
-            throw new RuntimeException("该权限已被角色使用，不能删除");
+        // 一次查询存在的权限，子权限与角色引用各一次分组查询
+        Map<Long, String> permissionCodes = permissionMapper.selectList(new LambdaQueryWrapper<Permission>()
+                        .select(Permission::getId, Permission::getPermissionCode)
+                        .in(Permission::getId, requestedIds))
+                .stream()
+                .collect(Collectors.toMap(Permission::getId, Permission::getPermissionCode));
+        Set<Long> parentIds = Collections.emptySet();
+        Set<Long> assignedIds = Collections.emptySet();
+        if (!permissionCodes.isEmpty()) {
+            parentIds = new HashSet<>(permissionMapper.selectParentIdsWithChildren(permissionCodes.keySet()));
+            assignedIds = new HashSet<>(rolePermissionMapper.selectAssignedPermissionIds(permissionCodes.keySet()));
         }
 
-        // 逻辑删除
-        permission.setDeleted(1);
-        permission.setUpdateBy(getCurrentUserId());
-        permission.setUpdateTime(LocalDateTime.now());
+        List<Long> deletableIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            if (!permissionCodes.containsKey(id)) {
+                result.fail(id, "权限不存在");
+            } else if (parentIds.contains(id)) {
+                result.fail(id, "该权限存在子权限，不能删除");
+            } else if (assignedIds.contains(id)) {
+                result.fail(id, "该权限已被角色使用，不能删除");
+            } else {
+                deletableIds.add(id);
+            }
+        }
+        if (deletableIds.isEmpty()) {
+            return result;
+        }
 
-        int result = permissionMapper.updateById(permission);
-        log.info("Permission deleted logically: {}", permission.getPermissionCode());
-        return result > 0;
-    }
+        permissionMapper.logicDeleteByIds(deletableIds, getCurrentUserId());
+        result.setDeletedIds(deletableIds);
 
-    @Override
-    @Transactional
-    public boolean deletePermissions(List<Long> ids) {
-        for (Long id : ids) {
-            deletePermission(id);
-        }
-        return true;
+        eventPublisher.publishEvent(AuthorizationChangedEvent.ofPermissions(this, deletableIds));
+        log.info("Permissions deleted logically: {}",
+                deletableIds.stream().map(permissionCodes::get).collect(Collectors.toList()));
+        return result;
     }
 
     @Override
@@ -218,26 +230,19 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
         permission.setUpdateTime(LocalDateTime.now());
 
         int result = permissionMapper.updateById(permission);
+        publishPermissionChanged(id);
         log.info("Permission status changed: {} -> {}", permission.getPermissionCode(), status);
         return result > 0;
     }
 
     @Override
     public List<Permission> getPermissionsByType(Integer type) {
-        QueryWrapper<Permission> wrapper = new QueryWrapper<>();
-        wrapper.eq("permission_type", type)
-               .eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
-        return permissionMapper.selectList(wrapper);
+        return rbacCatalog.getSnapshot().getPermissionsByType(type);
     }
 
     @Override
     public List<Permission> getParentPermissions() {
-        QueryWrapper<Permission> wrapper = new QueryWrapper<>();
-        wrapper.eq("parent_id", 0)
-               .eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
-        return permissionMapper.selectList(wrapper);
+        return rbacCatalog.getSnapshot().getChildren(0L);
     }
 
     @Override
@@ -265,27 +270,37 @@ public class PermissionServiceImpl extends ServiceImpl<PermissionMapper, Permiss
     /**
      * 构建权限树
      */
-    private List<PermissionDto> buildPermissionTree(List<PermissionDto> permissionDtos) {
-        Map<Long, PermissionDto> permissionMap = permissionDtos.stream()
-                .collect(Collectors.toMap(PermissionDto::getId, dto -> dto));
-
-        List<PermissionDto> rootPermissions = new ArrayList<>();
-
-        for (PermissionDto permissionDto : permissionDtos) {
-            if (permissionDto.getParentId() == null || permissionDto.getParentId() == 0) {
-                rootPermissions.add(permissionDto);
-            } else {
-                PermissionDto parent = permissionMap.get(permissionDto.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(permissionDto);
-                }
+    private List<PermissionDto> buildPermissionTree(RbacSnapshot snapshot, Long parentId) {
+        List<PermissionDto> nodes = new ArrayList<>();
+        for (Permission permission : snapshot.getChildren(parentId)) {
+            PermissionDto dto = convertToDto(permission);
+            if (!snapshot.getChildren(permission.getId()).isEmpty()) {
+                dto.setChildren(buildPermissionTree(snapshot, permission.getId()));
             }
+            nodes.add(dto);
         }
+        return nodes;
+    }
+
+    /**
+     * 发布权限授权变更事件，事务提交后重新加载角色权限目录并失效通过角色持有该权限的用户缓存
+     */
+    private void publishPermissionChanged(Long permissionId) {
+        eventPublisher.publishEvent(AuthorizationChangedEvent.ofPermissions(this, Collections.singleton(permissionId)));
+    }
 
-        return rootPermissions;
+    /**
+     * 校验接口路径格式，格式错误的路径无法编译为URL授权规则
+     */
+    private void validatePath(String path) {
+        if (path == null || path.trim().isEmpty()) {
+            return;
+        }
+        try {
+            UrlPermissionTrie.validate(path);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("接口路径格式错误: " + path);
+        }
     }
 
     /**
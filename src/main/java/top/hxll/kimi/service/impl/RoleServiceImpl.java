@@ -7,18 +7,25 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import top.hxll.kimi.common.page.PageTotalCounter;
 import top.hxll.kimi.dto.RoleDto;
+import top.hxll.kimi.dto.resp.BatchDeleteResp;
+import top.hxll.kimi.entity.Permission;
 import top.hxll.kimi.entity.Role;
 import top.hxll.kimi.entity.RolePermission;
-import top.hxll.kimi.entity.UserRole;
 import top.hxll.kimi.mapper.RoleMapper;
 import top.hxll.kimi.mapper.RolePermissionMapper;
 import top.hxll.kimi.mapper.UserRoleMapper;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
 import top.hxll.kimi.security.service.UserDetailsImpl;
 import top.hxll.kimi.service.RoleService;
 
@@ -40,6 +47,15 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
     private final RoleMapper roleMapper;
     private final RolePermissionMapper rolePermissionMapper;
     private final UserRoleMapper userRoleMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RbacCatalog rbacCatalog;
+    private final PageTotalCounter pageTotalCounter;
+
+    /**
+     * 角色权限单条 INSERT/DELETE 语句包含的最大权限数
+     */
+    @Value("${security.role-permission.batch-size:500}")
+    private int writeBatchSize;
 
 
     @Override
@@ -48,21 +64,15 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
             return Collections.emptySet();
         }
 
-        LambdaQueryWrapper<Role> qw = new LambdaQueryWrapper<Role>()
-                .in(Role::getId, roleIds)
-                .select(Role::getId);
-
-        return new HashSet<>(this.listObjs(qw, obj -> (Long) obj));
+        RbacSnapshot snapshot = rbacCatalog.getSnapshot();
+        return roleIds.stream()
+                .filter(roleId -> snapshot.getRole(roleId) != null)
+                .collect(Collectors.toSet());
     }
 
     @Override
     public List<RoleDto> getAllRoles() {
-        QueryWrapper<Role> wrapper = new QueryWrapper<>();
-        wrapper.eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
-
-        List<Role> roles = roleMapper.selectList(wrapper);
-        return roles.stream()
+        return rbacCatalog.getSnapshot().getRoles().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -72,28 +82,22 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         QueryWrapper<Role> wrapper = new QueryWrapper<>();
 
         if (keyword != null && !keyword.trim().isEmpty()) {
-            wrapper.like("role_name", keyword)
+            wrapper.and(wq -> wq.like("role_name", keyword)
                    .or()
-                   .like("role_code", keyword);
+                   .like("role_code", keyword));
         }
 
         if (status != null) {
             wrapper.eq("status", status);
         }
 
-        wrapper.eq("deleted", 0)
-               .orderByAsc("sort_order", "id");
+        wrapper.orderByAsc("sort_order", "id");
 
-        IPage<Role> rolePage = roleMapper.selectPage(page, wrapper);
-        IPage<RoleDto> dtoPage = new Page<>();
-        dtoPage.setCurrent(rolePage.getCurrent());
-        dtoPage.setSize(rolePage.getSize());
-        dtoPage.setTotal(rolePage.getTotal());
-        dtoPage.setRecords(rolePage.getRecords().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList()));
+        IPage<Role> rolePage = pageTotalCounter.selectPage(page, "sys_role",
+                PageTotalCounter.filterKey(keyword, status),
+                p -> roleMapper.selectRoleListPage(p, wrapper), () -> roleMapper.selectCount(wrapper));
 
-        return dtoPage;
+        return rolePage.convert(this::convertToDto);
     }
 
     @Override
@@ -109,10 +113,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
 
     @Override
     public Role getRoleByCode(String roleCode) {
-        QueryWrapper<Role> wrapper = new QueryWrapper<>();
-        wrapper.eq("role_code", roleCode)
-               .eq("deleted", 0);
-        return roleMapper.selectOne(wrapper);
+        return rbacCatalog.getSnapshot().getRoleByCode(roleCode);
     }
 
     @Override
@@ -141,6 +142,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         role.setCreateTime(LocalDateTime.now());
 
         roleMapper.insert(role);
+        publishRoleChanged(role.getId());
         log.info("Role created successfully: {}", role.getRoleCode());
         return role;
     }
@@ -170,6 +172,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         role.setUpdateTime(LocalDateTime.now());
 
         roleMapper.updateById(role);
+        publishRoleChanged(id);
         log.info("Role updated successfully: {}", role.getRoleCode());
         return role;
     }
@@ -177,39 +180,57 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
     @Override
     @Transactional
     public boolean deleteRole(Long id) {
-        Role role = roleMapper.selectById(id);
-        if (role == null) {
-            throw new RuntimeException("角色不存在");
-        }
-
-        // 检查是否被用户使用
-        List<UserRole> userRoles = userRoleMapper.selectList(
-                new QueryWrapper<UserRole>().eq("role_id", id));
-        if (!CollectionUtils.isEmpty(userRoles)) {
-            throw new RuntimeException("该角色已被用户使用，不能删除");
+        BatchDeleteResp result = deleteRoles(Collections.singletonList(id));
+        if (!result.isAllDeleted()) {
+            throw new RuntimeException(result.getFailures().get(id));
         }
-
-        // 逻辑删除
-        role.setDeleted(1);
-        role.setUpdateBy(getCurrentUserId());
-        role.setUpdateTime(LocalDateTime.now());
-
-        int result = roleMapper.updateById(role);
-
-        // 删除角色权限关联
-        rolePermissionMapper.deleteByRoleId(id);
-
-        log.info("Role deleted logically: {}", role.getRoleCode());
-        return result > 0;
+        return true;
     }
 
     @Override
     @Transactional
-    public boolean deleteRoles(List<Long> ids) {
-        for (Long id : ids) {
-            deleteRole(id);
+    public BatchDeleteResp deleteRoles(List<Long> ids) {
+        BatchDeleteResp result = new BatchDeleteResp();
+        if (CollectionUtils.isEmpty(ids)) {
+            return result;
         }
-        return true;
+        Set<Long> requestedIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requestedIds.isEmpty()) {
+            return result;
+        }
+
+        // 一次查询存在的角色，一次分组查询被用户使用的角色
+        Map<Long, String> roleCodes = roleMapper.selectList(new LambdaQueryWrapper<Role>()
+                        .select(Role::getId, Role::getRoleCode)
+                        .in(Role::getId, requestedIds))
+                .stream()
+                .collect(Collectors.toMap(Role::getId, Role::getRoleCode));
+        Set<Long> assignedIds = roleCodes.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(userRoleMapper.selectAssignedRoleIds(roleCodes.keySet()));
+
+        List<Long> deletableIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            if (!roleCodes.containsKey(id)) {
+                result.fail(id, "角色不存在");
+            } else if (assignedIds.contains(id)) {
+                result.fail(id, "该角色已被用户使用，不能删除");
+            } else {
+                deletableIds.add(id);
+            }
+        }
+        if (deletableIds.isEmpty()) {
+            return result;
+        }
+
+        // 逻辑删除并删除角色权限关联
+        roleMapper.logicDeleteByIds(deletableIds, getCurrentUserId());
+        rolePermissionMapper.deleteByRoleIds(deletableIds);
+        result.setDeletedIds(deletableIds);
+
+        eventPublisher.publishEvent(AuthorizationChangedEvent.ofRoles(this, deletableIds));
+        log.info("Roles deleted logically: {}", deletableIds.stream().map(roleCodes::get).collect(Collectors.toList()));
+        return result;
     }
 
     @Override
@@ -225,42 +246,55 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         role.setUpdateTime(LocalDateTime.now());
 
         int result = roleMapper.updateById(role);
+        publishRoleChanged(id);
         log.info("Role status changed: {} -> {}", role.getRoleCode(), status);
         return result > 0;
     }
 
     @Override
     public List<Long> getRolePermissionIds(Long roleId) {
-        return rolePermissionMapper.selectPermissionIdsByRoleId(roleId);
+        return rbacCatalog.getSnapshot().getPermissionsByRole(roleId).stream()
+                .map(Permission::getId)
+                .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
     public boolean updateRolePermissions(Long roleId, List<Long> permissionIds) {
-        // 删除原有权限关联
-        rolePermissionMapper.deleteByRoleId(roleId);
+        lockRole(roleId);
 
-        // 添加新权限关联
-        if (!CollectionUtils.isEmpty(permissionIds)) {
-            List<RolePermission> rolePermissions = permissionIds.stream()
-                    .distinct()
-                    .map(permissionId -> {
-                        RolePermission rolePermission = new RolePermission();
-                        rolePermission.setRoleId(roleId);
-                        rolePermission.setPermissionId(permissionId);
-                        rolePermission.setCreateBy(getCurrentUserId());
-                        rolePermission.setCreateTime(LocalDateTime.now());
-                        return rolePermission;
-                    })
-                    .collect(Collectors.toList());
+        Set<Long> targetIds = new HashSet<>(getValidPermissionIds(permissionIds));
+        Set<Long> currentIds = new HashSet<>(rolePermissionMapper.selectPermissionIdsByRoleId(roleId));
 
-            if (!rolePermissions.isEmpty()) {
-                rolePermissionMapper.batchInsert(rolePermissions);
-            }
+        List<Long> addedIds = targetIds.stream()
+                .filter(permissionId -> !currentIds.contains(permissionId))
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> removedIds = currentIds.stream()
+                .filter(permissionId -> !targetIds.contains(permissionId))
+                .sorted()
+                .collect(Collectors.toList());
+
+        return applyRolePermissionChanges(roleId, addedIds, removedIds);
+    }
+
+    @Override
+    @Transactional
+    public boolean patchRolePermissions(Long roleId, List<Long> addPermissionIds, List<Long> removePermissionIds) {
+        List<Long> addedIds = getValidPermissionIds(addPermissionIds);
+        List<Long> removedIds = CollectionUtils.isEmpty(removePermissionIds)
+                ? Collections.emptyList()
+                : removePermissionIds.stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.toList());
+        if (addedIds.stream().anyMatch(removedIds::contains)) {
+            throw new RuntimeException("同一权限不能同时添加和移除");
         }
 
-        log.info("Updated permissions for role {}: {}", roleId, permissionIds);
-        return true;
+        lockRole(roleId);
+        return applyRolePermissionChanges(roleId, addedIds, removedIds);
     }
 
     @Override
@@ -282,6 +316,74 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         return stats;
     }
 
+    /**
+     * 锁定角色行，同一角色的并发权限修改串行执行
+     */
+    private void lockRole(Long roleId) {
+        if (roleMapper.selectIdForUpdate(roleId) == null) {
+            throw new RuntimeException("角色不存在");
+        }
+    }
+
+    /**
+     * 过滤出存在的权限ID，去重并排序
+     */
+    private List<Long> getValidPermissionIds(List<Long> permissionIds) {
+        if (CollectionUtils.isEmpty(permissionIds)) {
+            return Collections.emptyList();
+        }
+        RbacSnapshot snapshot = rbacCatalog.getSnapshot();
+        return permissionIds.stream()
+                .filter(permissionId -> permissionId != null && snapshot.getPermission(permissionId) != null)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 分批写入角色权限差异：DELETE ... IN 移除，INSERT IGNORE 添加
+     * 只有实际有行变化时才发布该角色的授权变更事件
+     */
+    private boolean applyRolePermissionChanges(Long roleId, List<Long> addedIds, List<Long> removedIds) {
+        int deleted = 0;
+        for (int from = 0; from < removedIds.size(); from += writeBatchSize) {
+            List<Long> chunk = removedIds.subList(from, Math.min(from + writeBatchSize, removedIds.size()));
+            deleted += rolePermissionMapper.deleteByRoleIdAndPermissionIds(roleId, chunk);
+        }
+
+        int inserted = 0;
+        Long operatorId = getCurrentUserId();
+        for (int from = 0; from < addedIds.size(); from += writeBatchSize) {
+            List<RolePermission> chunk = addedIds.subList(from, Math.min(from + writeBatchSize, addedIds.size()))
+                    .stream()
+                    .map(permissionId -> {
+                        RolePermission rolePermission = new RolePermission();
+                        rolePermission.setRoleId(roleId);
+                        rolePermission.setPermissionId(permissionId);
+                        rolePermission.setCreateBy(operatorId);
+                        return rolePermission;
+                    })
+                    .collect(Collectors.toList());
+            inserted += rolePermissionMapper.batchInsert(chunk);
+        }
+
+        if (deleted == 0 && inserted == 0) {
+            log.debug("Permissions unchanged for role {}, skip event", roleId);
+            return true;
+        }
+
+        publishRoleChanged(roleId);
+        log.info("Updated permissions for role {}, added: {}, removed: {}", roleId, inserted, deleted);
+        return true;
+    }
+
+    /**
+     * 发布角色授权变更事件，事务提交后重新加载角色权限目录并失效持有该角色的用户缓存
+     */
+    private void publishRoleChanged(Long roleId) {
+        eventPublisher.publishEvent(AuthorizationChangedEvent.ofRoles(this, Collections.singleton(roleId)));
+    }
+
     /**
      * 实体转换为DTO
      */
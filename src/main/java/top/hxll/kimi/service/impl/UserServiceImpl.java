@@ -5,19 +5,18 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.sun.xml.internal.bind.v2.TODO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import top.hxll.kimi.dto.*;
 import top.hxll.kimi.dto.req.auth.RegisterReq;
@@ -27,12 +26,21 @@ import top.hxll.kimi.dto.req.user.UserUpdateReq;
 import top.hxll.kimi.entity.Role;
 import top.hxll.kimi.entity.User;
 import top.hxll.kimi.entity.UserRole;
+import top.hxll.kimi.common.CursorPage;
+import top.hxll.kimi.common.PageCursor;
 import top.hxll.kimi.common.UserContextUtils;
 import top.hxll.kimi.common.exception.UserException;
+import top.hxll.kimi.common.page.PageTotalCounter;
 import top.hxll.kimi.common.exception.PasswordException;
-import top.hxll.kimi.mapper.RoleMapper;
 import top.hxll.kimi.mapper.UserMapper;
 import top.hxll.kimi.mapper.UserRoleMapper;
+import top.hxll.kimi.search.UserChangedEvent;
+import top.hxll.kimi.search.UserPrefixIndex;
+import top.hxll.kimi.search.UserSearchIndex;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.rbac.RbacSnapshot;
+import top.hxll.kimi.security.revocation.TokenRevocationService;
 import top.hxll.kimi.security.service.UserDetailsImpl;
 import top.hxll.kimi.service.RoleService;
 import top.hxll.kimi.service.UserRoleService;
@@ -59,14 +67,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     private static final String DEFAULT_PASSWORD = "123456";
 
     private final UserMapper userMapper;
-    private final RoleMapper roleMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final RbacCatalog rbacCatalog;
     private final RoleService roleService;
     private final UserRoleService userRoleService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenRevocationService tokenRevocationService;
+    private final PageTotalCounter pageTotalCounter;
+    private final UserSearchIndex userSearchIndex;
 
     @Override
     @Transactional
-    public User register(RegisterReq registerReq) {
+    public User register(RegisterReq registerReq, String encodedPassword) {
         log.info("Registering new user: {}", registerReq.getUsername());
 
         // 验证密码是否一致
@@ -96,7 +109,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         // 创建用户实体
         User user = new User();
         user.setUsername(registerReq.getUsername());
-        user.setPassword(passwordEncoder.encode(registerReq.getPassword()));
+        user.setPassword(encodedPassword);
         user.setEmail(registerReq.getEmail());
         user.setPhone(registerReq.getPhone());
         user.setNickname(registerReq.getNickname());
@@ -105,14 +118,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
         // 保存用户
         this.save(user);
+        publishUserDataChanged(Collections.singleton(user.getId()));
 
         // 分配默认角色
         String roleCode = registerReq.getRoleCode() != null ? registerReq.getRoleCode() : "user";
 
-        LambdaQueryWrapper<Role> qw1 = new LambdaQueryWrapper<Role>().eq(Role::getRoleCode, roleCode);
-        // 等价于 getOne(queryWrapper, false)，即默认不抛出异常，返回null
-        // 查询到多条记录时，返回第一条记录
-        Role role = roleService.getOne(qw1);
+        // 从角色权限目录查找，不查询数据库
+        Role role = roleService.getRoleByCode(roleCode);
         if (role != null) {
             UserRole userRole = new UserRole();
             userRole.setUserId(user.getId());
@@ -149,6 +161,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
         // 执行更新（自动填充 update_time / update_by）
         boolean result = this.updateById(user);
+        publishUserChanged(Collections.singleton(userId));
+        // 修改密码后已签发的令牌全部失效
+        tokenRevocationService.revokeUserTokens(exUser.getUsername());
         log.info("Password changed successfully for user: {}", userId);
         return result;
     }
@@ -167,6 +182,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         log.info("Password will be reset to default: '{}'", DEFAULT_PASSWORD);
 
         boolean result = this.updateById(user);
+        publishUserChanged(Collections.singleton(userId));
+        tokenRevocationService.revokeUserTokens(exUser.getUsername());
         log.info("Password reset successfully for user: {}", userId);
         return result;
     }
@@ -180,37 +197,105 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public IPage<UserDto> getUserPage(Page<User> page, String keyword, Integer status) {
-        // 使用 LambdaQueryWrapper 替代 QueryWrapper，提高类型安全性
+        LambdaQueryWrapper<User> wrapper = buildUserQueryWrapper(keyword, status);
+
+        // 未指定排序时按创建时间倒序，并以ID兜底保证翻页顺序稳定
+        if (page.orders().isEmpty()) {
+            wrapper.orderByDesc(User::getCreateTime).orderByDesc(User::getId);
+        } else if (page.orders().stream().noneMatch(order -> "id".equals(order.getColumn()))) {
+            page.addOrder(OrderItem.desc("id"));
+        }
+
+        IPage<User> userPage = pageTotalCounter.selectPage(page, "sys_user",
+                PageTotalCounter.filterKey(keyword, status),
+                p -> userMapper.selectUserBasicPage(p, wrapper), () -> this.count(wrapper));
+
+        return userPage.convert(this::convertToListDto);
+    }
+
+    @Override
+    public CursorPage<UserDto> getUserCursorPage(String cursor, int size, String keyword, Integer status) {
+        LambdaQueryWrapper<User> wrapper = buildUserQueryWrapper(keyword, status);
+
+        // 从上一页最后一条记录 (create_time, id) 之后继续，走 idx_create_time 范围扫描，与页深无关
+        PageCursor position = PageCursor.decode(cursor);
+        if (position != null) {
+            wrapper.le(User::getCreateTime, position.getTime())
+                    .and(wq -> wq.lt(User::getCreateTime, position.getTime())
+                            .or()
+                            .lt(User::getId, position.getId()));
+        }
+        wrapper.orderByDesc(User::getCreateTime).orderByDesc(User::getId);
+
+        // 多取一条判断是否还有下一页，不执行COUNT
+        List<User> users = userMapper.selectUserBasicPage(new Page<>(1, size + 1, false), wrapper).getRecords();
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+
+        CursorPage<UserDto> result = new CursorPage<>();
+        result.setSize(size);
+        result.setHasNext(hasNext);
+        result.setRecords(users.stream()
+                .map(this::convertToListDto)
+                .collect(Collectors.toList()));
+        if (hasNext) {
+            User last = users.get(users.size() - 1);
+            result.setNextCursor(PageCursor.encode(last.getCreateTime(), last.getId()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<UserSuggestDto> suggestUsers(String prefix, int limit) {
+        List<UserPrefixIndex.Suggestion> suggestions = userSearchIndex.suggest(prefix, limit);
+        if (suggestions != null) {
+            return suggestions.stream()
+                    .map(s -> new UserSuggestDto(s.getId(), s.getUsername(), s.getNickname()))
+                    .collect(Collectors.toList());
+        }
+
+        // 索引未就绪：按用户名前缀查询，可使用 uk_username 索引
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getUsername, User::getNickname)
+                .likeRight(User::getUsername, prefix.trim())
+                .orderByAsc(User::getUsername);
+        return this.page(new Page<>(1, limit, false), wrapper).getRecords().stream()
+                .map(user -> new UserSuggestDto(user.getId(), user.getUsername(), user.getNickname()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 用户列表查询条件：关键词与状态
+     */
+    private LambdaQueryWrapper<User> buildUserQueryWrapper(String keyword, Integer status) {
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
 
-        // 关键词搜索条件
+        // 关键词搜索条件：优先用搜索索引得到ID再按主键查询，索引不可用时回退到 LIKE
         if (keyword != null && !keyword.trim().isEmpty()) {
-            wrapper.and(wq -> wq.like(User::getUsername, keyword)
-                    .or()
-                    .like(User::getNickname, keyword)
-                    .or()
-                    .like(User::getEmail, keyword));
+            List<Long> matchedIds = userSearchIndex.search(keyword);
+            if (matchedIds == null) {
+                wrapper.and(wq -> wq.like(User::getUsername, keyword)
+                        .or()
+                        .like(User::getNickname, keyword)
+                        .or()
+                        .like(User::getEmail, keyword)
+                        .or()
+                        .like(User::getPhone, keyword));
+            } else if (matchedIds.isEmpty()) {
+                wrapper.apply("1 = 0");
+            } else {
+                // 匹配数不超过 search.user-index.max-results，分页查询和 COUNT 中的 IN 列表保持较小
+                wrapper.in(User::getId, matchedIds);
+            }
         }
 
         // 状态筛选条件
         if (status != null) {
             wrapper.eq(User::getStatus, status);
         }
-
-        // 按创建时间倒序
-        wrapper.orderByDesc(User::getCreateTime);
-
-        // 使用 ServiceImpl 提供的 page 方法替代自定义 Mapper 方法
-        IPage<User> userPage = this.page(page, wrapper);
-
-        // 转换为 DTO 分页结果
-        IPage<UserDto> dtoPage = userPage.convert(user -> {
-            UserDto dto = new UserDto();
-            BeanUtils.copyProperties(user, dto);
-            return dto;
-        });
-
-        return dtoPage;
+        return wrapper;
     }
 
     @Override
@@ -239,6 +324,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
         // 执行更新（自动填充 update_time / update_by）
         boolean result = this.updateById(user);
+        publishUserChanged(Collections.singleton(userId));
+        if (updateRequest.getEmail() != null || updateRequest.getPhone() != null || updateRequest.getNickname() != null) {
+            publishUserDataChanged(Collections.singleton(userId));
+        }
 
         // 更新角色关联
         if (updateRequest.getRoleIds() != null) {
@@ -251,7 +340,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Transactional
     public boolean deleteUser(Long userId) {
         // 验证用户存在
-        getUserByIdOrThrow(userId);
+        User exUser = getUserByIdOrThrow(userId);
 
         // 逻辑删除 - 触发自动填充 update_time 和 update_by
         boolean result = this.removeById(userId);
@@ -260,6 +349,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         LambdaQueryWrapper<UserRole> qw = new LambdaQueryWrapper<>();
         qw.eq(UserRole::getUserId, userId);
         userRoleService.remove(qw);
+        publishUserChanged(Collections.singleton(userId));
+        publishUserDataChanged(Collections.singleton(userId));
+        tokenRevocationService.revokeUserTokens(exUser.getUsername());
 
         log.info("User deleted logically: {}", userId);
         return result;
@@ -268,40 +360,51 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Override
     @Transactional
     public boolean updateUserRoles(Long userId, List<Long> roleIds) {
-        // todo: 待优化
-        // 删除原有角色关联
-        userRoleService.deleteByUserId(userId);
-
-        // 添加新角色关联
-        if (!CollectionUtils.isEmpty(roleIds)) {
-            // 校验角色是否存在
-            Set<Long> validRoleIds = roleService.getValidRoleIds(roleIds);
-
-            if (!validRoleIds.isEmpty()) {
-                // 直接使用有效角色ID创建UserRole对象
-                List<UserRole> userRoles = validRoleIds.stream()
-                        .map(roleId -> {
-                            UserRole userRole = new UserRole();
-                            userRole.setUserId(userId);
-                            userRole.setRoleId(roleId);
-                            userRole.setCreateBy(UserContextUtils.getCurrentUserId());
-                            return userRole;
-                        })
-                        .collect(Collectors.toList());
-
-                // 使用 MyBatis-Plus 的 saveBatch 方法
-                // TODO: 测试使用框架自动注入
-                boolean success = userRoleService.saveBatch(userRoles);
-                if (!success) {
-                    throw new RuntimeException("Failed to insert user-role relations");
-                }
-            }
+        // 锁定用户行，同一用户的并发角色修改串行执行，避免在 uk_user_role 上交叉加锁
+        if (userMapper.selectIdForUpdate(userId) == null) {
+            throw new UserException("用户不存在");
         }
-        log.info("Successfully updated roles for user {}, roles: {}", userId, roleIds);
+
+        // 目标角色只保留存在的角色，与当前角色比较差异
+        Set<Long> targetRoleIds = roleService.getValidRoleIds(roleIds);
+        Set<Long> currentRoleIds = new HashSet<>(userRoleMapper.selectRoleIdsByUserId(userId));
+
+        List<Long> removedRoleIds = currentRoleIds.stream()
+                .filter(roleId -> !targetRoleIds.contains(roleId))
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> addedRoleIds = targetRoleIds.stream()
+                .filter(roleId -> !currentRoleIds.contains(roleId))
+                .sorted()
+                .collect(Collectors.toList());
+
+        if (removedRoleIds.isEmpty() && addedRoleIds.isEmpty()) {
+            log.debug("Roles unchanged for user {}, skip update", userId);
+            return true;
+        }
+
+        if (!removedRoleIds.isEmpty()) {
+            userRoleMapper.deleteByUserIdAndRoleIds(userId, removedRoleIds);
+        }
+        if (!addedRoleIds.isEmpty()) {
+            Long operatorId = UserContextUtils.getCurrentUserId();
+            List<UserRole> userRoles = addedRoleIds.stream()
+                    .map(roleId -> {
+                        UserRole userRole = new UserRole();
+                        userRole.setUserId(userId);
+                        userRole.setRoleId(roleId);
+                        userRole.setCreateBy(operatorId);
+                        return userRole;
+                    })
+                    .collect(Collectors.toList());
+            userRoleService.batchInsert(userRoles);
+        }
+
+        publishUserChanged(Collections.singleton(userId));
+        log.info("Successfully updated roles for user {}, added: {}, removed: {}", userId, addedRoleIds, removedRoleIds);
         return true;
     }
 
-
     @Override
     @Transactional
     public User createUser(UserCreateReq req) {
@@ -325,6 +428,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         user.setAvatar("/default-avatar.png");
 
         this.save(user);
+        publishUserDataChanged(Collections.singleton(user.getId()));
         // 分配角色
         if (req.getRoleIds() != null && req.getRoleIds().length > 0) {
             List<Long> roleIds = Arrays.asList(req.getRoleIds());
@@ -346,6 +450,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         user.setId(userId);
         user.setStatus(status);
         boolean result = this.updateById(user);
+        publishUserChanged(Collections.singleton(userId));
+        // 禁用用户时吊销其已签发的令牌
+        if (Integer.valueOf(0).equals(status)) {
+            tokenRevocationService.revokeUserTokens(exUser.getUsername());
+        }
         log.info("User status changed: {} -> {}", userId, status);
         return result;
     }
@@ -357,12 +466,16 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             return true;
         }
         log.info("Batch deleting users: {}", userIds);
+        List<User> users = this.listByIds(userIds);
 
         // 逻辑删除 - 触发自动填充 update_time 和 update_by
         this.removeByIds(userIds);
 
         // 批量删除用户角色关联
         userRoleService.deleteByUserIds(userIds);
+        publishUserChanged(userIds);
+        publishUserDataChanged(userIds);
+        users.forEach(user -> tokenRevocationService.revokeUserTokens(user.getUsername()));
 
         log.info("Batch deleted {} users", userIds.size());
         return true;
@@ -389,6 +502,20 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return statistics;
     }
 
+    /**
+     * 发布用户授权变更事件，事务提交后失效相关缓存
+     */
+    private void publishUserChanged(Collection<Long> userIds) {
+        eventPublisher.publishEvent(AuthorizationChangedEvent.ofUsers(this, userIds));
+    }
+
+    /**
+     * 发布用户资料变更事件，事务提交后同步搜索索引
+     */
+    private void publishUserDataChanged(Collection<Long> userIds) {
+        eventPublisher.publishEvent(new UserChangedEvent(this, userIds));
+    }
+
     /**
      * 根据ID获取用户，不存在则抛出异常
      *
@@ -404,6 +531,23 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return user;
     }
 
+    /**
+     * 将列表查询的User转换为UserDto，只包含 selectUserBasicPage 查询的字段
+     */
+    private UserDto convertToListDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        dto.setPhone(user.getPhone());
+        dto.setNickname(user.getNickname());
+        dto.setAvatar(user.getAvatar());
+        dto.setStatus(user.getStatus());
+        dto.setLastLoginTime(user.getLastLoginTime());
+        dto.setCreateTime(user.getCreateTime());
+        return dto;
+    }
+
     /**
      * 将User实体转换为UserDto（包含角色和权限信息）
      */
@@ -422,14 +566,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         dto.setLastLoginIp(user.getLastLoginIp());
         dto.setCreateTime(user.getCreateTime());
 
-        // 获取角色和权限信息
-        List<Role> roles = roleMapper.selectRolesByUserId(userId);
-        dto.setRoles(roles.stream()
+        // 获取角色和权限信息：只查询角色ID，角色和权限从角色权限目录解析
+        List<Long> roleIds = userRoleMapper.selectRoleIdsByUserId(userId);
+        RbacSnapshot rbac = rbacCatalog.getSnapshot();
+        dto.setRoles(rbac.getEnabledRoles(roleIds).stream()
                 .map(this::convertToRoleDto)
                 .collect(Collectors.toList()));
-
-        List<String> permissions = userMapper.selectPermissionsByUserId(userId);
-        dto.setPermissions(permissions);
+        dto.setPermissions(rbac.getPermissionCodes(roleIds));
 
         return dto;
     }
@@ -149,6 +149,53 @@ CREATE TABLE IF NOT EXISTS sys_operation_log (
     KEY idx_operation_time (operation_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='操作日志表';
 
+-- 创建令牌吊销表
+CREATE TABLE IF NOT EXISTS sys_token_revocation (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    revoke_type TINYINT NOT NULL COMMENT '吊销类型：1-单个令牌，2-用户全部令牌',
+    revoke_key VARCHAR(64) NOT NULL COMMENT '令牌ID（jti）或用户名',
+    not_before BIGINT COMMENT '用户吊销时间点（毫秒），早于该时间签发的令牌无效',
+    expire_time DATETIME NOT NULL COMMENT '过期时间，之后该记录不再需要',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (id),
+    KEY idx_create_time (create_time),
+    KEY idx_expire_time (expire_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='令牌吊销表';
+
+-- 创建刷新令牌表
+CREATE TABLE IF NOT EXISTS sys_refresh_token (
+    token_id VARCHAR(64) NOT NULL COMMENT '令牌ID（jti）',
+    family_id VARCHAR(64) NOT NULL COMMENT '令牌族ID，同一次登录轮换出的令牌属于同一族',
+    username VARCHAR(50) NOT NULL COMMENT '用户名',
+    expire_time DATETIME NOT NULL COMMENT '过期时间',
+    used TINYINT DEFAULT 0 COMMENT '是否已使用：1-已使用，0-未使用',
+    revoked TINYINT DEFAULT 0 COMMENT '是否已吊销：1-已吊销，0-正常',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (token_id),
+    KEY idx_family_id (family_id),
+    KEY idx_expire_time (expire_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='刷新令牌表';
+
+-- 创建JWT密钥表
+CREATE TABLE IF NOT EXISTS sys_jwt_key (
+    key_id VARCHAR(64) NOT NULL COMMENT '密钥ID（kid）',
+    algorithm VARCHAR(10) NOT NULL COMMENT '签名算法：HS256/ES256',
+    private_key TEXT NOT NULL COMMENT '签名密钥（使用jwt.secret派生的密钥AES-GCM加密后Base64编码）',
+    public_key TEXT COMMENT '验签公钥（Base64编码的X.509），对称密钥为空',
+    activate_at BIGINT NOT NULL COMMENT '开始用于签名的时间（毫秒时间戳），之前只用于验签',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (key_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='JWT密钥表';
+
+-- 创建授权版本表
+CREATE TABLE IF NOT EXISTS sys_authorization_version (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID，即变更后的授权版本号',
+    user_id BIGINT COMMENT '受影响的用户ID，为空表示全局变更',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (id),
+    KEY idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='授权版本表';
+
 -- 插入初始数据
 
 -- 插入初始权限数据
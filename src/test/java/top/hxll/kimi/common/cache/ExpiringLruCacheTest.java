@@ -0,0 +1,138 @@
+package top.hxll.kimi.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 带过期时间的LRU缓存测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class ExpiringLruCacheTest {
+
+    @Test
+    void returnsStoredValuesUntilTheyExpire() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 50);
+        cache.put("a", "1");
+        cache.put("b", "2", System.currentTimeMillis() + 10_000);
+
+        assertEquals("1", cache.get("a"));
+        Thread.sleep(80);
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+    }
+
+    @Test
+    void ignoresEntriesThatAreAlreadyExpired() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 10_000);
+        cache.put("a", "1", System.currentTimeMillis() - 1);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(3, 10_000, 1);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        // 访问a使其成为最近使用，插入d时淘汰b
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals("4", cache.get("d"));
+    }
+
+    @Test
+    void sizeStaysBoundedAcrossSegments() {
+        ExpiringLruCache<Integer, Integer> cache = new ExpiringLruCache<>(64, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+    }
+
+    @Test
+    void computeIfAbsentCreatesOnlyOnce() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 10_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("v", cache.computeIfAbsent("k", k -> {
+            calls.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", cache.computeIfAbsent("k", k -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void removeIfAndPurgeExpiredReturnRemovedCounts() throws InterruptedException {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(100, 10_000);
+        for (int i = 0; i < 10; i++) {
+            cache.put("k" + i, i);
+        }
+        cache.put("short", 101, System.currentTimeMillis() + 20);
+
+        assertEquals(5, cache.removeIf((key, value) -> value % 2 == 0));
+        Thread.sleep(40);
+        assertEquals(1, cache.purgeExpired());
+        assertEquals(5, cache.size());
+
+        assertEquals(Integer.valueOf(1), cache.remove("k1"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void concurrentComputeIfAbsentCreatesOneValuePerKey() throws Exception {
+        ExpiringLruCache<Integer, Integer> cache = new ExpiringLruCache<>(10_000, 10_000);
+        AtomicInteger created = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    int key = i;
+                    assertEquals(key * 2, (int) cache.computeIfAbsent(key, k -> {
+                        created.incrementAndGet();
+                        return k * 2;
+                    }));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1000, created.get());
+        assertEquals(1000, cache.size());
+    }
+}
@@ -0,0 +1,73 @@
+package top.hxll.kimi.common.concurrent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步批量写入器吞吐基准
+ * 写入端为空操作，测量的是环形队列和后台线程本身的开销：
+ * submit 系列测量提交耗时（队列满时走丢弃路径，不阻塞）；sustained 在队列满时重试，测量经后台线程写出的持续吞吐
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncBatchWriterBenchmark {
+
+    private final Object element = new Object();
+
+    private final AtomicLong sunk = new AtomicLong();
+
+    private AsyncBatchWriter<Object> writer;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // 与 security.login-log 默认配置一致
+        writer = new AsyncBatchWriter<>("benchmark", 8192, 200, 2000, batch -> sunk.addAndGet(batch.size()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        writer.close();
+        System.out.printf("  written=%d dropped=%d%n", writer.getWrittenCount(), writer.getDroppedCount());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean submit() {
+        return writer.submit(element);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean submitContended() {
+        return writer.submit(element);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void sustained() {
+        while (!writer.submit(element)) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package top.hxll.kimi.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步批量写入器测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class AsyncBatchWriterTest {
+
+    @Test
+    void concurrentProducersAreWrittenInBoundedBatches() throws Exception {
+        List<Integer> sunk = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger maxBatch = new AtomicInteger();
+        AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<>("test", 1 << 16, 100, 10, batch -> {
+            maxBatch.accumulateAndGet(batch.size(), Math::max);
+            sunk.addAll(batch);
+        });
+
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(writer.submit(base + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        writer.close();
+
+        assertEquals(producers * perProducer, writer.getWrittenCount());
+        assertEquals(0, writer.getDroppedCount());
+        assertEquals(producers * perProducer, sunk.size());
+        assertEquals(producers * perProducer, sunk.stream().distinct().count());
+        assertTrue(maxBatch.get() <= 100, "batch size " + maxBatch.get());
+    }
+
+    @Test
+    void submissionsBeyondCapacityAreDroppedAndCounted() throws Exception {
+        CountDownLatch sinkEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> sunk = new CopyOnWriteArrayList<>();
+        AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<>("test", 8, 1, 10, batch -> {
+            sinkEntered.countDown();
+            awaitQuietly(release);
+            sunk.addAll(batch);
+        });
+
+        // 第一个元素被后台线程取出后阻塞在写入中，之后队列可容纳8个
+        assertTrue(writer.submit(0));
+        assertTrue(sinkEntered.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 8; i++) {
+            assertTrue(writer.submit(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertFalse(writer.submit(100 + i));
+        }
+
+        assertEquals(5, writer.getDroppedCount());
+        assertEquals(8, writer.getPendingCount());
+        release.countDown();
+        writer.close();
+        assertEquals(9, writer.getWrittenCount());
+        assertEquals(9, sunk.size());
+    }
+
+    @Test
+    void closeDrainsPendingElements() {
+        List<Integer> sunk = new CopyOnWriteArrayList<>();
+        AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<>("test", 1024, 500, 60_000, sunk::addAll);
+        for (int i = 0; i < 50; i++) {
+            writer.submit(i);
+        }
+
+        long start = System.nanoTime();
+        writer.close();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertEquals(50, sunk.size());
+        assertEquals(50, writer.getWrittenCount());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    void failedBatchIsRetriedInHalvesAndOnlyBadElementsAreDropped() {
+        List<Integer> sunk = new CopyOnWriteArrayList<>();
+        AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<>("test", 1024, 256, 60_000, batch -> {
+            if (batch.contains(17) || batch.contains(150)) {
+                throw new IllegalStateException("Data too long");
+            }
+            sunk.addAll(batch);
+        });
+        for (int i = 0; i < 200; i++) {
+            writer.submit(i);
+        }
+        writer.close();
+
+        assertEquals(198, writer.getWrittenCount());
+        assertEquals(2, writer.getFailedCount());
+        assertEquals(198, sunk.size());
+        assertFalse(sunk.contains(17));
+        assertFalse(sunk.contains(150));
+    }
+
+    @Test
+    void unavailableSinkGivesUpAfterLogarithmicRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger batches = new AtomicInteger();
+        AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<>("test", 1024, 256, 60_000, batch -> {
+            calls.incrementAndGet();
+            // 重试传入的是子列表，首次写入的是新建的批次
+            if (batch.getClass() == ArrayList.class) {
+                batches.incrementAndGet();
+            }
+            throw new IllegalStateException("Connection refused");
+        });
+        for (int i = 0; i < 200; i++) {
+            writer.submit(i);
+        }
+        writer.close();
+
+        assertEquals(0, writer.getWrittenCount());
+        assertEquals(200, writer.getFailedCount());
+        // 后台线程被虚假唤醒时元素可能分成多个批次写出，每个批次各自重试约 log2(批量大小) 次
+        assertTrue(calls.get() <= 12 * batches.get(), "sink calls " + calls.get() + " for " + batches.get() + " batch(es)");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package top.hxll.kimi.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 有界无锁环形队列测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class BoundedRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new BoundedRingBuffer<>(5).capacity());
+        assertEquals(1, new BoundedRingBuffer<>(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedRingBuffer<>(0));
+    }
+
+    @Test
+    void offerFailsWhenFullAndPollPreservesOrder() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+        assertThrows(NullPointerException.class, () -> buffer.offer(null));
+    }
+
+    @Test
+    void slotsAreReusedAcrossManyWraps() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(-i));
+            assertEquals(Integer.valueOf(i), buffer.poll());
+            assertEquals(Integer.valueOf(-i), buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void drainToRespectsMaxElements() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(16);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> target = new ArrayList<>();
+
+        assertEquals(6, buffer.drainTo(target, 6));
+        assertEquals(4, buffer.drainTo(target, 100));
+        assertEquals(0, buffer.drainTo(target, 100));
+        assertEquals(10, target.size());
+        assertEquals(Integer.valueOf(9), target.get(9));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersDeliverEveryElementExactlyOnce() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 200_000;
+        int total = producers * perProducer;
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(1024);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong consumed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    // 队列满时自旋重试，验证满队列时不会丢失或重复
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (consumed.get() < total) {
+                    Integer value = buffer.poll();
+                    if (value == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    seen.incrementAndGet(value);
+                    consumed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "element " + i);
+        }
+        assertTrue(buffer.isEmpty());
+    }
+}
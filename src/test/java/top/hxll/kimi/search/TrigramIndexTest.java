@@ -0,0 +1,135 @@
+package top.hxll.kimi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 三元组索引测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class TrigramIndexTest {
+
+    @Test
+    void matchesSubstringOfAnyFieldIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(3, "Alice", "爱丽丝", "alice@example.com", "13800000001");
+        index.put(1, "bob", "Bobby", "bob@test.org", null);
+        index.put(2, "carol", null, "CAROL@example.com", "13900000002");
+
+        assertArrayEquals(new long[]{2, 3}, index.search("EXAMPLE", 10));
+        assertArrayEquals(new long[]{1}, index.search("bobb", 10));
+        assertArrayEquals(new long[]{3}, index.search("丽丝", 10));
+        assertArrayEquals(new long[]{3}, index.search("0000001", 10));
+        assertArrayEquals(new long[0], index.search("nobody", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void shortKeywordScansAllDocuments() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(5, "ab", "x");
+        index.put(4, "cab", "y");
+        index.put(6, "zz", "ay");
+
+        assertArrayEquals(new long[]{4, 5}, index.search("ab", 10));
+        assertArrayEquals(new long[]{4, 6}, index.search("y", 10));
+    }
+
+    @Test
+    void keywordDoesNotMatchAcrossFieldBoundaries() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abc", "def");
+
+        assertArrayEquals(new long[0], index.search("cde", 10));
+        assertArrayEquals(new long[0], index.search("bcde", 10));
+    }
+
+    @Test
+    void returnsNullWhenMatchesExceedLimit() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 1; id <= 20; id++) {
+            index.put(id, "user" + id);
+        }
+
+        assertNull(index.search("user", 19));
+        assertEquals(20, index.search("user", 20).length);
+        assertNull(index.search("us", 5));
+    }
+
+    @Test
+    void replaceAndRemoveUpdatePostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "alice", "wonderland");
+        index.put(1, "alice", "looking glass");
+
+        assertArrayEquals(new long[0], index.search("wonder", 10));
+        assertArrayEquals(new long[]{1}, index.search("glass", 10));
+
+        index.remove(1);
+        index.remove(42);
+        assertArrayEquals(new long[0], index.search("alice", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomUpdates() {
+        Random random = new Random(7);
+        TrigramIndex index = new TrigramIndex();
+        Map<Long, String[]> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(2_000);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                String[] fields = {randomText(random), randomText(random)};
+                index.put(id, fields);
+                expected.put(id, fields);
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String keyword = randomText(random).substring(0, 1 + random.nextInt(4));
+            long[] actual = index.search(keyword, Integer.MAX_VALUE);
+            long[] brute = expected.entrySet().stream()
+                    .filter(entry -> contains(entry.getValue(), keyword))
+                    .mapToLong(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(brute, actual, "keyword " + keyword);
+        }
+        assertEquals(expected.size(), index.size());
+    }
+
+    private static boolean contains(String[] fields, String keyword) {
+        String needle = keyword.toLowerCase();
+        for (String field : fields) {
+            if (field.toLowerCase().contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 小字母表的随机文本，保证关键词有足够的命中
+     */
+    private static String randomText(Random random) {
+        int length = 4 + random.nextInt(8);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(6));
+            text.append(random.nextInt(4) == 0 ? Character.toUpperCase(c) : c);
+        }
+        return text.toString();
+    }
+}
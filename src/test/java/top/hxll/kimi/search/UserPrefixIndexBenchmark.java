@@ -0,0 +1,96 @@
+package top.hxll.kimi.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户前缀索引基准
+ * 启动时构建指定用户数的索引，输出构建耗时和索引占用的堆内存（GC后已用堆之差，包含用户名和昵称字符串）；
+ * 基准测量前缀查询前10个结果和增量更新的耗时
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UserPrefixIndexBenchmark {
+
+    private static final String[] SYLLABLES = {"an", "bo", "chen", "da", "li", "ming", "na", "qi", "shu", "wang",
+            "xiao", "yu", "zhang", "ke", "lo", "mi"};
+
+    @Param("1000000")
+    private int users;
+
+    private UserPrefixIndex index;
+
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        UserPrefixIndex.Builder builder = new UserPrefixIndex.Builder();
+        for (long id = 1; id <= users; id++) {
+            builder.add(id, randomName(random) + id, random.nextInt(3) == 0 ? null : randomName(random));
+        }
+        index = builder.build();
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long bytes = usedHeap() - before;
+        System.out.printf("%nusers=%d entries=%d build=%d ms heap=%.1f MB (%d bytes/user)%n",
+                users, index.size(), buildMillis, bytes / 1024.0 / 1024.0, bytes / users);
+
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = randomName(random);
+            prefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(4, name.length())));
+        }
+    }
+
+    @Benchmark
+    public List<UserPrefixIndex.Suggestion> searchTop10() {
+        return index.search(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    @Benchmark
+    public void put() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1 + random.nextInt(users);
+        index.put(id, "user" + id + "_" + random.nextInt(1000), SYLLABLES[random.nextInt(SYLLABLES.length)] + id);
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int parts = 1 + random.nextInt(3);
+        for (int i = 0; i < parts; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,224 @@
+package top.hxll.kimi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户名/昵称前缀索引测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class UserPrefixIndexTest {
+
+    @Test
+    void matchesUsernameOrNicknamePrefixIgnoringCase() {
+        UserPrefixIndex index = new UserPrefixIndex.Builder()
+                .add(1, "alice", "Wonder")
+                .add(2, "Bob", "alibaba")
+                .add(3, "carol", null)
+                .add(4, "ALFRED", "")
+                .build();
+
+        assertEquals(ids(4L, 2L, 1L), ids(index.search("AL", 10)));
+        assertEquals(ids(1L), ids(index.search("won", 10)));
+        assertEquals(ids(2L), ids(index.search("bo", 10)));
+        assertEquals(ids(), ids(index.search("dave", 10)));
+        assertEquals("ALFRED", index.search("alf", 1).get(0).getUsername());
+    }
+
+    @Test
+    void userMatchedByBothFieldsIsReturnedOnce() {
+        UserPrefixIndex index = new UserPrefixIndex.Builder()
+                .add(1, "anna", "annie")
+                .add(2, "annabel", null)
+                .build();
+
+        assertEquals(ids(1L, 2L), ids(index.search("ann", 10)));
+    }
+
+    @Test
+    void equalKeysAreOrderedByIdAcrossBaseAndDelta() {
+        UserPrefixIndex index = new UserPrefixIndex.Builder()
+                .add(9, "sam", null)
+                .add(20, "sam", null)
+                .build();
+        index.put(10, "sam", null);
+        index.put(3, "Sam", null);
+
+        assertEquals(ids(3L, 9L, 10L, 20L), ids(index.search("sam", 10)));
+        assertEquals(ids(3L, 9L), ids(index.search("sa", 2)));
+    }
+
+    @Test
+    void putAndRemoveAreVisibleImmediately() {
+        UserPrefixIndex index = new UserPrefixIndex.Builder()
+                .add(1, "alice", null)
+                .add(2, "bob", null)
+                .build();
+
+        index.put(1, "alicia", "ally");
+        index.put(3, "albert", null);
+        index.remove(2);
+
+        assertEquals(ids(3L, 1L), ids(index.search("al", 10)));
+        assertEquals(ids(), ids(index.search("alice", 10)));
+        assertEquals(ids(), ids(index.search("bob", 10)));
+
+        index.put(2, "bobby", null);
+        assertEquals(ids(2L), ids(index.search("bob", 10)));
+    }
+
+    @Test
+    void compactionKeepsResults() {
+        UserPrefixIndex.Builder builder = new UserPrefixIndex.Builder();
+        for (long id = 1; id <= 100; id++) {
+            builder.add(id, "user" + id, null);
+        }
+        UserPrefixIndex index = builder.build();
+        for (long id = 101; id <= 2100; id++) {
+            index.put(id, "user" + id, null);
+        }
+
+        // 增量超过阈值后已合并回主体数组
+        assertTrue(index.size() > 100, "size " + index.size());
+        assertEquals(ids(200L, 2000L), ids(index.search("user200", 2)));
+        assertEquals(11, index.search("user200", 20).size());
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomUpdates() {
+        Random random = new Random(24);
+        Map<Long, String[]> users = new HashMap<>();
+        UserPrefixIndex.Builder builder = new UserPrefixIndex.Builder();
+        for (long id = 1; id <= 20_000; id++) {
+            String[] user = {randomName(random), random.nextBoolean() ? randomName(random) : null};
+            users.put(id, user);
+            builder.add(id, user[0], user[1]);
+        }
+        UserPrefixIndex index = builder.build();
+
+        for (int i = 0; i < 25_000; i++) {
+            long id = 1 + random.nextInt(25_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                users.remove(id);
+            } else {
+                String[] user = {randomName(random), random.nextBoolean() ? randomName(random) : null};
+                index.put(id, user[0], user[1]);
+                users.put(id, user);
+            }
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String prefix = randomName(random).substring(0, 1 + random.nextInt(3));
+            assertEquals(bruteForce(users, prefix, 10), ids(index.search(prefix, 10)), "prefix " + prefix);
+        }
+    }
+
+    @Test
+    void compactionRunsOnExecutorAndKeepsChangesMadeWhileMerging() {
+        Random random = new Random(7);
+        Map<Long, String[]> users = new HashMap<>();
+        List<Runnable> pending = new ArrayList<>();
+        UserPrefixIndex.Builder builder = new UserPrefixIndex.Builder().compactOn(pending::add);
+        for (long id = 1; id <= 5_000; id++) {
+            String[] user = {randomName(random), null};
+            users.put(id, user);
+            builder.add(id, user[0], user[1]);
+        }
+        UserPrefixIndex index = builder.build();
+
+        int compactions = 0;
+        for (int i = 0; i < 12_000; i++) {
+            long id = 1 + random.nextInt(6_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                users.remove(id);
+            } else {
+                String[] user = {randomName(random), random.nextBoolean() ? randomName(random) : null};
+                index.put(id, user[0], user[1]);
+                users.put(id, user);
+            }
+            // 合并任务提交后继续变更一段时间再执行，模拟索引线程上的合并与请求线程上的变更交错
+            if (i % 1_500 == 1_499 && !pending.isEmpty()) {
+                int sizeBefore = index.size();
+                Runnable compaction = pending.remove(0);
+                assertEquals(sizeBefore, index.size(), "compaction must not run on the caller thread");
+                compaction.run();
+                compactions++;
+                for (int q = 0; q < 50; q++) {
+                    String prefix = randomName(random).substring(0, 1 + random.nextInt(3));
+                    assertEquals(bruteForce(users, prefix, 10), ids(index.search(prefix, 10)), "prefix " + prefix);
+                }
+            }
+        }
+
+        assertTrue(compactions > 0);
+        pending.forEach(Runnable::run);
+        for (int q = 0; q < 100; q++) {
+            String prefix = randomName(random).substring(0, 1 + random.nextInt(3));
+            assertEquals(bruteForce(users, prefix, 10), ids(index.search(prefix, 10)), "prefix " + prefix);
+        }
+    }
+
+    /**
+     * 每个用户取其匹配前缀的最小key，按 key、用户ID 排序后取前limit个
+     */
+    private static List<Long> bruteForce(Map<Long, String[]> users, String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        Map<Long, String> best = new HashMap<>();
+        users.forEach((id, user) -> {
+            for (String field : user) {
+                if (field == null || field.isEmpty()) {
+                    continue;
+                }
+                String key = field.toLowerCase(Locale.ROOT);
+                if (key.startsWith(from)) {
+                    best.merge(id, key, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+                }
+            }
+        });
+        return best.entrySet().stream()
+                .sorted(Map.Entry.<Long, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 小字母表的随机名称，保证前缀有较多命中和相同key
+     */
+    private static String randomName(Random random) {
+        int length = 3 + random.nextInt(5);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(5));
+            name.append(random.nextInt(5) == 0 ? Character.toUpperCase(c) : c);
+        }
+        return name.toString();
+    }
+
+    private static List<Long> ids(Long... ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (Long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static List<Long> ids(List<UserPrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(UserPrefixIndex.Suggestion::getId).collect(Collectors.toList());
+    }
+}
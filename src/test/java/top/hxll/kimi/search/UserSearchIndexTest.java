@@ -0,0 +1,138 @@
+package top.hxll.kimi.search;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.entity.User;
+import top.hxll.kimi.mapper.UserMapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户搜索索引测试：定时重建不占用定时任务线程
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class UserSearchIndexTest {
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+
+    private final UserSearchIndex index = new UserSearchIndex(userMapper);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeAll
+    static void initTableInfo() {
+        // Lambda条件构造器需要实体的表信息，正常由MyBatis-Plus启动时初始化
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        index.shutdown();
+    }
+
+    @Test
+    void scheduledRebuildRunsOnIndexThread() throws InterruptedException {
+        configure(true);
+        when(userMapper.selectPage(any(), any())).thenReturn(page(user(1L, "alice")));
+        index.rebuild();
+        assertEquals(Collections.singletonList(1L), index.search("alice"));
+
+        CountDownLatch started = new CountDownLatch(1);
+        when(userMapper.selectPage(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return page(user(1L, "alice"), user(2L, "alicia"));
+        });
+
+        long start = System.nanoTime();
+        index.scheduledRebuild();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "scheduler thread blocked by rebuild");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 构建期间继续使用旧索引，重复触发不会再次构建
+        assertEquals(Collections.singletonList(1L), index.search("alice"));
+        index.scheduledRebuild();
+        index.rebuildAsync();
+
+        release.countDown();
+        awaitIndexed(2);
+        verify(userMapper, times(2)).selectPage(any(), any());
+    }
+
+    @Test
+    void dropsOldIndexDuringRebuildWhenConfigured() throws InterruptedException {
+        configure(false);
+        when(userMapper.selectPage(any(), any())).thenReturn(page(user(1L, "alice")));
+        index.rebuild();
+
+        CountDownLatch started = new CountDownLatch(1);
+        when(userMapper.selectPage(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return page(user(1L, "alice"), user(2L, "alicia"));
+        });
+        index.scheduledRebuild();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 构建期间查询回退到数据库，且不会提交新的构建
+        assertNull(index.search("alice"));
+
+        release.countDown();
+        awaitIndexed(2);
+        verify(userMapper, times(2)).selectPage(any(), any());
+    }
+
+    private void configure(boolean keepDuringRebuild) {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "batchSize", 100);
+        ReflectionTestUtils.setField(index, "maxResults", 100);
+        ReflectionTestUtils.setField(index, "keepDuringRebuild", keepDuringRebuild);
+    }
+
+    private void awaitIndexed(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<Long> ids = index.search("ali");
+            if (ids != null && ids.size() == expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("index was not rebuilt");
+    }
+
+    private static Page<User> page(User... users) {
+        Page<User> page = new Page<>(1, 100, false);
+        page.setRecords(Arrays.asList(users));
+        return page;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,210 @@
+package top.hxll.kimi.security.authority;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.entity.AuthorizationVersion;
+import top.hxll.kimi.mapper.AuthorizationVersionMapper;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 授权版本服务测试
+ * 两个服务通过数据库存储共享同一张授权版本表（Mapper以内存列表模拟），模拟两个节点
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class AuthorizationVersionServiceTest {
+
+    private final List<AuthorizationVersion> table = new ArrayList<>();
+
+    private AuthorizationVersionMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(AuthorizationVersionMapper.class);
+        doAnswer(invocation -> {
+            List<AuthorizationVersion> rows = invocation.getArgument(0);
+            synchronized (table) {
+                for (AuthorizationVersion row : rows) {
+                    row.setId((long) table.size() + 1);
+                    row.setCreateTime(LocalDateTime.now());
+                    table.add(row);
+                }
+            }
+            return rows.size();
+        }).when(mapper).batchInsert(any());
+        // 增量条件由数据库执行，这里返回全部记录，服务需幂等处理重复记录
+        when(mapper.selectList(any())).thenAnswer(invocation -> {
+            synchronized (table) {
+                return new ArrayList<>(table);
+            }
+        });
+    }
+
+    @Test
+    void userChangeOnOneNodeIsHonoredOnAnotherAfterSync() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        AuthorizationVersionService nodeB = node(new DatabaseAuthorizationVersionStore(mapper));
+        long issued = nodeB.currentVersion();
+
+        nodeA.bumpUsers(Collections.singleton(7L));
+
+        assertFalse(nodeA.isCurrent(7L, issued));
+        nodeB.sync();
+        assertFalse(nodeB.isCurrent(7L, issued));
+        assertTrue(nodeB.isCurrent(8L, issued), "other users are not affected");
+        assertTrue(nodeB.isCurrent(7L, nodeB.currentVersion()), "tokens issued after the change are current");
+    }
+
+    @Test
+    void remoteChangeRefreshesCatalogBeforeVersionMovesOn() {
+        RbacCatalog catalogA = mock(RbacCatalog.class);
+        RbacCatalog catalogB = mock(RbacCatalog.class);
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper), catalogA);
+        AuthorizationVersionService nodeB = node(new DatabaseAuthorizationVersionStore(mapper), catalogB);
+        long issued = nodeB.currentVersion();
+        doAnswer(invocation -> {
+            // 目录刷新时版本尚未前移，按新目录加载的用户详情不会带着旧目录的权限被视为最新
+            assertTrue(nodeB.isCurrent(7L, issued));
+            return null;
+        }).when(catalogB).refresh();
+
+        nodeA.bumpUsers(Collections.singleton(7L));
+        nodeA.sync();
+        nodeB.sync();
+        nodeB.sync();
+
+        verify(catalogA, never()).refresh();
+        verify(catalogB, times(1)).refresh();
+        assertFalse(nodeB.isCurrent(7L, issued));
+    }
+
+    @Test
+    void globalChangeInvalidatesEveryEarlierTokenOnAllNodes() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        AuthorizationVersionService nodeB = node(new DatabaseAuthorizationVersionStore(mapper));
+        long issued = nodeA.currentVersion();
+
+        nodeB.bumpAll();
+        nodeA.sync();
+
+        assertFalse(nodeA.isCurrent(1L, issued));
+        assertFalse(nodeA.isCurrent(null, issued));
+        assertEquals(nodeB.currentVersion(), nodeA.currentVersion());
+        assertTrue(nodeA.isCurrent(1L, nodeA.currentVersion()));
+    }
+
+    @Test
+    void versionsSurviveRestartWithSharedStore() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        nodeA.bumpUsers(Collections.singleton(7L));
+        long issued = nodeA.currentVersion();
+
+        AuthorizationVersionService restarted = node(new DatabaseAuthorizationVersionStore(mapper));
+
+        assertTrue(restarted.isShared());
+        assertEquals(issued, restarted.currentVersion());
+        assertTrue(restarted.isCurrent(7L, issued));
+        assertFalse(restarted.isCurrent(7L, issued - 1));
+    }
+
+    @Test
+    void largeUserChangeIsPromotedToGlobal() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        long issued = nodeA.currentVersion();
+
+        nodeA.bumpUsers(LongStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList()));
+
+        assertEquals(1, table.size());
+        assertFalse(nodeA.isCurrent(5000L, issued));
+    }
+
+    @Test
+    void multiUserChangeIsWrittenInOneInsert() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        AuthorizationVersionService nodeB = node(new DatabaseAuthorizationVersionStore(mapper));
+        long issued = nodeA.currentVersion();
+
+        nodeA.bumpUsers(Arrays.asList(1L, 2L, 3L));
+
+        verify(mapper, times(1)).batchInsert(any());
+        verify(mapper, never()).insert(any(AuthorizationVersion.class));
+        assertEquals(3, table.size());
+        assertEquals(table.get(2).getId().longValue(), nodeA.currentVersion());
+        nodeB.sync();
+        for (long userId = 1; userId <= 3; userId++) {
+            assertFalse(nodeB.isCurrent(userId, issued));
+        }
+        assertTrue(nodeB.isCurrent(4L, issued));
+    }
+
+    @Test
+    void failedWriteDistrustsTokensLocallyUntilNewerVersionIsSeen() {
+        AuthorizationVersionService nodeA = node(new DatabaseAuthorizationVersionStore(mapper));
+        AuthorizationVersionService nodeB = node(new DatabaseAuthorizationVersionStore(mapper));
+        long issued = nodeA.currentVersion();
+        AuthorizationVersionMapper failing = mock(AuthorizationVersionMapper.class);
+        when(failing.batchInsert(any())).thenThrow(new IllegalStateException("db down"));
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(nodeA, "versionStore"),
+                "authorizationVersionMapper", failing);
+
+        nodeA.bumpUsers(Collections.singleton(7L));
+
+        assertFalse(nodeA.isCurrent(8L, issued));
+        assertFalse(nodeA.isCurrent(8L, nodeA.currentVersion()));
+
+        nodeB.bumpUsers(Collections.singleton(9L));
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(nodeA, "versionStore"),
+                "authorizationVersionMapper", mapper);
+        nodeA.sync();
+        assertTrue(nodeA.isCurrent(8L, nodeA.currentVersion()));
+    }
+
+    @Test
+    void memoryStoreStartsAtStartupTimeAndIsNotShared() {
+        long before = System.currentTimeMillis();
+        AuthorizationVersionService node = node(new InMemoryAuthorizationVersionStore());
+
+        assertFalse(node.isShared());
+        assertTrue(node.currentVersion() >= before);
+        assertFalse(node.isCurrent(1L, before - 1), "tokens issued before restart are stale");
+        assertTrue(node.isCurrent(1L, node.currentVersion()));
+
+        long issued = node.currentVersion();
+        node.bumpUsers(Arrays.asList(1L, 2L));
+        assertFalse(node.isCurrent(1L, issued));
+        assertFalse(node.isCurrent(2L, issued));
+        assertTrue(node.isCurrent(3L, issued));
+    }
+
+    private static AuthorizationVersionService node(AuthorizationVersionStore store) {
+        return node(store, mock(RbacCatalog.class));
+    }
+
+    private static AuthorizationVersionService node(AuthorizationVersionStore store, RbacCatalog rbacCatalog) {
+        AuthorizationVersionService service = new AuthorizationVersionService(store, rbacCatalog);
+        ReflectionTestUtils.setField(service, "jwtExpirationSeconds", 86400);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,157 @@
+package top.hxll.kimi.security.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 接口权限路径树测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class UrlPermissionTrieTest {
+
+    @Test
+    void literalBeatsPatternBeatsWildcardBeatsDoubleWildcard() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/files/**", "double")
+                .add("GET", "/api/files/*", "single")
+                .add("GET", "/api/files/*.json", "pattern")
+                .add("GET", "/api/files/index.json", "literal")
+                .build();
+
+        assertEquals(codes("literal"), trie.match("GET", "/api/files/index.json"));
+        assertEquals(codes("pattern"), trie.match("GET", "/api/files/data.json"));
+        assertEquals(codes("single"), trie.match("GET", "/api/files/data.xml"));
+        assertEquals(codes("double"), trie.match("GET", "/api/files/a/b"));
+    }
+
+    @Test
+    void variableMatchesSingleSegmentLikeWildcard() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/users/{id}", "user:query")
+                .add("GET", "/api/users/search", "user:search")
+                .build();
+
+        assertEquals(codes("user:search"), trie.match("GET", "/api/users/search"));
+        assertEquals(codes("user:query"), trie.match("GET", "/api/users/42"));
+        assertNull(trie.match("GET", "/api/users/42/roles"));
+    }
+
+    @Test
+    void literalBranchBacktracksWhenDeeperSegmentsDoNotMatch() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/users/search/history", "search:history")
+                .add("GET", "/api/users/*/roles", "user:roles")
+                .build();
+
+        assertEquals(codes("user:roles"), trie.match("GET", "/api/users/search/roles"));
+    }
+
+    @Test
+    void specificMethodFallsBackToAnyMethod() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("DELETE", "/api/users/*", "user:delete")
+                .add(null, "/api/users/**", "user:any")
+                .add("", "/api/roles/*", "role:any")
+                .build();
+
+        assertEquals(codes("user:delete"), trie.match("DELETE", "/api/users/1"));
+        assertEquals(codes("user:any"), trie.match("GET", "/api/users/1"));
+        // 指定方法的树中没有匹配规则时回退到不限方法的规则
+        assertEquals(codes("user:any"), trie.match("DELETE", "/api/users/1/roles"));
+        assertEquals(codes("role:any"), trie.match("PUT", "/api/roles/2"));
+        assertNull(trie.match("GET", "/api/menus/1"));
+    }
+
+    @Test
+    void methodIsNormalizedWhenAdded() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add(" post ", "/api/users", "user:add")
+                .build();
+
+        assertEquals(codes("user:add"), trie.match("POST", "/api/users"));
+    }
+
+    @Test
+    void trailingDoubleWildcardMatchesZeroSegments() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/logs/**", "log:query")
+                .build();
+
+        assertEquals(codes("log:query"), trie.match("GET", "/api/logs"));
+        assertEquals(codes("log:query"), trie.match("GET", "/api/logs/"));
+        assertEquals(codes("log:query"), trie.match("GET", "/api/logs/2024/01"));
+        assertNull(trie.match("GET", "/api/log"));
+    }
+
+    @Test
+    void doubleWildcardInMiddleMatchesAnyDepth() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/**/export", "export")
+                .build();
+
+        assertEquals(codes("export"), trie.match("GET", "/api/export"));
+        assertEquals(codes("export"), trie.match("GET", "/api/users/roles/export"));
+        assertNull(trie.match("GET", "/api/users/roles"));
+    }
+
+    @Test
+    void regexVariableIsHonored() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/users/{id:\\d+}", "user:query")
+                .add("GET", "/api/users/{name}", "user:byName")
+                .build();
+
+        assertEquals(codes("user:query"), trie.match("GET", "/api/users/42"));
+        assertEquals(codes("user:byName"), trie.match("GET", "/api/users/alice"));
+    }
+
+    @Test
+    void regexVariableWithoutFallbackDoesNotMatchOtherValues() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/orders/{id:[0-9]{3}}", "order:query")
+                .build();
+
+        assertEquals(codes("order:query"), trie.match("GET", "/api/orders/123"));
+        assertNull(trie.match("GET", "/api/orders/1234"));
+        assertNull(trie.match("GET", "/api/orders/abc"));
+    }
+
+    @Test
+    void invalidPathIsRejectedWhenAdded() {
+        UrlPermissionTrie.Builder builder = new UrlPermissionTrie.Builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add("GET", "/api/users/{id:[0-9}", "bad"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("GET", "/api/users/{id", "bad"));
+        assertThrows(IllegalArgumentException.class, () -> UrlPermissionTrie.validate("/api/{id:(\\d+}"));
+        assertEquals(0, builder.build().size());
+    }
+
+    @Test
+    void codesOfSameRuleAreMerged() {
+        UrlPermissionTrie trie = new UrlPermissionTrie.Builder()
+                .add("GET", "/api/users", "user:query")
+                .add("GET", "/api/users", "user:list")
+                .build();
+
+        assertEquals(codes("user:query", "user:list"), trie.match("GET", "/api/users"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        assertNull(UrlPermissionTrie.EMPTY.match("GET", "/api/users"));
+    }
+
+    private static Collection<String> codes(String... codes) {
+        return codes.length == 1 ? Collections.singleton(codes[0]) : new java.util.LinkedHashSet<>(Arrays.asList(codes));
+    }
+}
@@ -0,0 +1,163 @@
+package top.hxll.kimi.security.expression;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.entity.RolePermission;
+import top.hxll.kimi.mapper.PermissionMapper;
+import top.hxll.kimi.mapper.RoleMapper;
+import top.hxll.kimi.mapper.RolePermissionMapper;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthoritySet;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+import top.hxll.kimi.security.service.UserDetailsImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 方法安全权限判断基准：Spring 默认表达式根对象与位图权限表达式根对象对比
+ * 目录含10个角色和200个权限，用户持有2个角色和60个权限；
+ * 判断 "hasAuthority('role:query') or hasRole('ADMIN')" 的最坏情况（均不满足），计时包含每次创建根对象
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorityExpressionBenchmark {
+
+    private static final String EXPRESSION = "hasAuthority('role:query') or hasRole('ADMIN')";
+
+    private SpringHandler springHandler;
+
+    private AuthorityExpressionHandler authorityHandler;
+
+    private Authentication listAuthentication;
+
+    private Authentication bitsetAuthentication;
+
+    private MethodInvocation invocation;
+
+    private Expression springExpression;
+
+    private Expression authorityExpression;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        List<Role> roles = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            Role role = new Role();
+            role.setId(i);
+            role.setRoleCode(i == 1 ? "admin" : "role" + i);
+            role.setRoleName("role" + i);
+            role.setStatus(1);
+            roles.add(role);
+        }
+        List<Permission> permissions = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            Permission permission = new Permission();
+            permission.setId(i);
+            permission.setPermissionCode(i == 1 ? "role:query" : "module" + (i % 20) + ":action" + i);
+            permission.setPermissionName("permission" + i);
+            permission.setPermissionType(3);
+            permission.setStatus(1);
+            permissions.add(permission);
+        }
+        RoleMapper roleMapper = mock(RoleMapper.class);
+        PermissionMapper permissionMapper = mock(PermissionMapper.class);
+        RolePermissionMapper rolePermissionMapper = mock(RolePermissionMapper.class);
+        when(roleMapper.selectList(any())).thenReturn(roles);
+        when(permissionMapper.selectList(any())).thenReturn(permissions);
+        when(rolePermissionMapper.selectList(any())).thenReturn(new ArrayList<RolePermission>());
+        AuthorityCatalog catalog = new AuthorityCatalog(new RbacCatalog(roleMapper, permissionMapper, rolePermissionMapper));
+
+        // 用户持有 ROLE_ROLE5、ROLE_ROLE6 和最后60个权限，不含 role:query 和 ROLE_ADMIN
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_ROLE5"));
+        authorities.add(new SimpleGrantedAuthority("ROLE_ROLE6"));
+        for (int i = 141; i <= 200; i++) {
+            authorities.add(new SimpleGrantedAuthority(permissions.get(i - 1).getPermissionCode()));
+        }
+        AuthoritySet authoritySet = catalog.toAuthoritySet(authorities);
+
+        UserDetailsImpl listPrincipal = UserDetailsImpl.fromClaims(1L, "alice", authorities);
+        listAuthentication = new UsernamePasswordAuthenticationToken(listPrincipal, null, authorities);
+        UserDetailsImpl bitsetPrincipal = UserDetailsImpl.fromClaims(1L, "alice", authoritySet);
+        bitsetAuthentication = new UsernamePasswordAuthenticationToken(bitsetPrincipal, null, authoritySet);
+
+        invocation = new SimpleMethodInvocation(this, AuthorityExpressionBenchmark.class.getMethod("springRoot"));
+        springHandler = new SpringHandler();
+        authorityHandler = new AuthorityExpressionHandler();
+        springExpression = springHandler.getExpressionParser().parseExpression(EXPRESSION);
+        authorityExpression = authorityHandler.getExpressionParser().parseExpression(EXPRESSION);
+
+        if (springRoot() || authorityRoot() || springExpression() || authorityExpression()) {
+            throw new IllegalStateException("benchmark expects the worst case where no check matches");
+        }
+    }
+
+    @Benchmark
+    public boolean springRoot() {
+        MethodSecurityExpressionOperations root = springHandler.root(listAuthentication, invocation);
+        return root.hasAuthority("role:query") || root.hasRole("ADMIN");
+    }
+
+    @Benchmark
+    public boolean authorityRoot() {
+        MethodSecurityExpressionOperations root =
+                authorityHandler.createSecurityExpressionRoot(bitsetAuthentication, invocation);
+        return root.hasAuthority("role:query") || root.hasRole("ADMIN");
+    }
+
+    @Benchmark
+    public boolean springExpression() {
+        EvaluationContext context = springHandler.createEvaluationContext(listAuthentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(springExpression, context);
+    }
+
+    @Benchmark
+    public boolean authorityExpression() {
+        EvaluationContext context = authorityHandler.createEvaluationContext(bitsetAuthentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(authorityExpression, context);
+    }
+
+    /**
+     * 暴露Spring默认处理器创建根对象的方法
+     */
+    static class SpringHandler extends DefaultMethodSecurityExpressionHandler {
+
+        MethodSecurityExpressionOperations root(Authentication authentication, MethodInvocation invocation) {
+            return createSecurityExpressionRoot(authentication, invocation);
+        }
+    }
+}
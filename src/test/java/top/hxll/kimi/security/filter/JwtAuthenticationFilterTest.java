@@ -0,0 +1,127 @@
+package top.hxll.kimi.security.filter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthorizationVersionService;
+import top.hxll.kimi.security.service.UserDetailsImpl;
+import top.hxll.kimi.security.service.UserDetailsServiceImpl;
+import top.hxll.kimi.security.util.JwtUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT认证过滤器测试：令牌中的权限何时可信
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN = "token";
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+
+    private final AuthorizationVersionService versionService = mock(AuthorizationVersionService.class);
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+            jwtUtils, userDetailsService, mock(AuthorityCatalog.class), versionService);
+
+    private final UserDetailsImpl loaded = new UserDetailsImpl(1L, "alice", null, "", null, null, null, 1,
+            Collections.emptyList());
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtils.getJwtFromRequest(any())).thenReturn(TOKEN);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(loaded);
+        when(versionService.isCurrent(any(), anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sharedVersionTrustsTokenAuthorities() {
+        when(versionService.isShared()).thenReturn(true);
+        when(jwtUtils.parseClaims(TOKEN)).thenReturn(claims(5L));
+
+        Authentication authentication = authenticate();
+
+        assertEquals("user:query", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void nodeLocalVersionReloadsUserUnlessClaimsOnly() {
+        when(versionService.isShared()).thenReturn(false);
+        when(jwtUtils.parseClaims(TOKEN)).thenReturn(claims(5L));
+
+        assertSame(loaded, authenticate().getPrincipal());
+
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(filter, "claimsOnly", true);
+        assertEquals("user:query", authenticate().getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void staleVersionReloadsUser() {
+        when(versionService.isShared()).thenReturn(true);
+        when(versionService.isCurrent(1L, 5L)).thenReturn(false);
+        when(jwtUtils.parseClaims(TOKEN)).thenReturn(claims(5L));
+
+        assertSame(loaded, authenticate().getPrincipal());
+    }
+
+    @Test
+    void tokenWithoutVersionIsTrustedOnlyInClaimsOnlyMode() {
+        when(versionService.isShared()).thenReturn(true);
+        when(jwtUtils.parseClaims(TOKEN)).thenReturn(claims(null));
+
+        assertSame(loaded, authenticate().getPrincipal());
+
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(filter, "claimsOnly", true);
+        assertEquals("user:query", authenticate().getAuthorities().iterator().next().getAuthority());
+    }
+
+    private Authentication authenticate() {
+        try {
+            filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Claims claims(Long authorizationVersion) {
+        Claims claims = Jwts.claims().setSubject("alice");
+        claims.put(JwtUtils.CLAIM_USER_ID, 1L);
+        claims.put(JwtUtils.CLAIM_AUTHORITIES, "user:query");
+        if (authorizationVersion != null) {
+            claims.put(JwtUtils.CLAIM_AUTHORIZATION_VERSION, authorizationVersion);
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,222 @@
+package top.hxll.kimi.security.key;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.entity.JwtKey;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JWT密钥管理器测试
+ * 两个管理器共享同一个密钥存储，模拟共享数据库的两个节点
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class JwtKeyManagerTest {
+
+    private static final String SECRET = "testSecretKeyForKimiApplicationWithSpringBootAndSecurity";
+
+    private final InMemoryJwtKeyStore store = new InMemoryJwtKeyStore();
+
+    @Test
+    void nodesShareTheBootstrappedEs256Key() {
+        JwtKeyManager nodeA = node("ES256", 60_000);
+        JwtKeyManager nodeB = node("ES256", 60_000);
+
+        assertNotNull(nodeA.getCurrentKey().getKeyId());
+        assertEquals(nodeA.getCurrentKey().getKeyId(), nodeB.getCurrentKey().getKeyId());
+        assertEquals("alice", verify(nodeB, sign(nodeA)));
+    }
+
+    @Test
+    void rotatedKeyIsVerifiableEverywhereBeforeItSigns() {
+        JwtKeyManager nodeA = node("ES256", 60_000);
+        JwtKeyManager nodeB = node("ES256", 60_000);
+        String oldKeyId = nodeA.getCurrentKey().getKeyId();
+
+        String newKeyId = nodeA.rotate();
+        nodeB.refreshKeys();
+
+        // 生效前两个节点仍使用旧密钥签名，但都已能校验新密钥并在JWKS中发布
+        assertEquals(oldKeyId, nodeA.getCurrentKey().getKeyId());
+        assertEquals(oldKeyId, nodeB.getCurrentKey().getKeyId());
+        assertTrue(jwkIds(nodeB).contains(newKeyId));
+        assertTrue(jwkIds(nodeB).contains(oldKeyId));
+    }
+
+    @Test
+    void nodesSwitchToTheRotatedKeyAfterActivationAndKeepVerifyingTheOldOne() throws InterruptedException {
+        JwtKeyManager nodeA = node("ES256", 100);
+        JwtKeyManager nodeB = node("ES256", 100);
+        String oldToken = sign(nodeA);
+
+        String newKeyId = nodeA.rotate();
+        Thread.sleep(150);
+        nodeA.refreshKeys();
+        nodeB.refreshKeys();
+
+        assertEquals(newKeyId, nodeA.getCurrentKey().getKeyId());
+        assertEquals(newKeyId, nodeB.getCurrentKey().getKeyId());
+        assertEquals("alice", verify(nodeB, sign(nodeA)));
+        assertEquals("alice", verify(nodeA, oldToken));
+        assertEquals("alice", verify(nodeB, oldToken));
+    }
+
+    @Test
+    void unknownKeyIdTriggersReloadFromTheStore() {
+        JwtKeyManager nodeA = node("ES256", 0);
+        JwtKeyManager nodeB = node("ES256", 0);
+
+        nodeA.rotate();
+        assertNotEquals(nodeA.getCurrentKey().getKeyId(), nodeB.getCurrentKey().getKeyId());
+
+        assertEquals("alice", verify(nodeB, sign(nodeA)));
+    }
+
+    @Test
+    void rotatedHmacKeyIsSharedThroughTheStore() {
+        JwtKeyManager nodeA = node("HS256", 0);
+        JwtKeyManager nodeB = node("HS256", 0);
+        assertNull(nodeA.getCurrentKey().getKeyId());
+        String legacyToken = sign(nodeA);
+
+        String newKeyId = nodeA.rotate();
+        nodeB.refreshKeys();
+
+        assertEquals(newKeyId, nodeB.getCurrentKey().getKeyId());
+        assertEquals("alice", verify(nodeA, sign(nodeB)));
+        assertEquals("alice", verify(nodeB, legacyToken));
+        // 对称密钥不出现在JWKS中
+        assertTrue(jwkIds(nodeB).isEmpty());
+    }
+
+    @Test
+    void legacyKeyRetiresLikeStoredKeys() throws InterruptedException {
+        JwtKeyManager nodeA = node("HS256", 0);
+        String legacyToken = sign(nodeA);
+        // 最长令牌有效期为0：后继密钥生效后旧密钥立即退役
+        ReflectionTestUtils.setField(nodeA, "jwtExpiration", 0);
+        ReflectionTestUtils.setField(nodeA, "jwtRefreshExpiration", 0);
+
+        nodeA.rotate();
+        Thread.sleep(5);
+        nodeA.refreshKeys();
+
+        assertThrows(SignatureException.class, () -> verify(nodeA, legacyToken));
+        assertEquals("alice", verify(nodeA, sign(nodeA)));
+    }
+
+    @Test
+    void hmacKeySignsWithDerivedKeyIdWhenLegacyTokensAreNotAccepted() {
+        JwtKeyManager acceptingNode = node("HS256", 0);
+        String legacyToken = sign(acceptingNode);
+        JwtKeyManager nodeA = node("HS256", 0, false);
+        JwtKeyManager nodeB = node("HS256", 0, false);
+
+        assertNotNull(nodeA.getCurrentKey().getKeyId());
+        assertEquals(nodeA.getCurrentKey().getKeyId(), nodeB.getCurrentKey().getKeyId());
+        assertEquals("alice", verify(nodeB, sign(nodeA)));
+        assertThrows(SignatureException.class, () -> verify(nodeA, legacyToken));
+    }
+
+    @Test
+    void es256AcceptsLegacyTokensOnlyWhenConfigured() {
+        String legacyToken = sign(node("HS256", 0));
+        JwtKeyManager accepting = new JwtKeyManager(new InMemoryJwtKeyStore());
+        configure(accepting, "ES256", 0, true);
+        accepting.init();
+        JwtKeyManager rejecting = new JwtKeyManager(new InMemoryJwtKeyStore());
+        configure(rejecting, "ES256", 0, false);
+        rejecting.init();
+
+        assertEquals("alice", verify(accepting, legacyToken));
+        assertThrows(SignatureException.class, () -> verify(rejecting, legacyToken));
+
+        // 启动后经过最长令牌有效期，切换前签发的旧令牌均已过期
+        ReflectionTestUtils.setField(accepting, "jwtExpiration", 0);
+        ReflectionTestUtils.setField(accepting, "jwtRefreshExpiration", 0);
+        accepting.refreshKeys();
+        assertThrows(SignatureException.class, () -> verify(accepting, legacyToken));
+    }
+
+    @Test
+    void storedSigningKeysAreEncrypted() {
+        JwtKeyManager nodeA = node("ES256", 0);
+        JwtKey record = store.loadAll().get(0);
+
+        assertEquals(nodeA.getCurrentKey().getKeyId(), record.getKeyId());
+        assertNotEquals(Base64.getEncoder().encodeToString(nodeA.getCurrentKey().getSigningKey().getEncoded()),
+                record.getPrivateKey());
+        assertThrows(IllegalStateException.class, () -> new JwtKeyCodec("anotherSecret").decode(record));
+    }
+
+    @Test
+    void tokenWithUnknownKeyIdIsRejected() {
+        JwtKeyManager nodeA = node("ES256", 0);
+        JwtKeyManager other = new JwtKeyManager(new InMemoryJwtKeyStore());
+        configure(other, "ES256", 0, true);
+        other.init();
+
+        assertThrows(SignatureException.class, () -> verify(nodeA, sign(other)));
+    }
+
+    private JwtKeyManager node(String algorithm, long activationDelay) {
+        return node(algorithm, activationDelay, true);
+    }
+
+    private JwtKeyManager node(String algorithm, long activationDelay, boolean acceptLegacy) {
+        JwtKeyManager manager = new JwtKeyManager(store);
+        configure(manager, algorithm, activationDelay, acceptLegacy);
+        manager.init();
+        return manager;
+    }
+
+    private static void configure(JwtKeyManager manager, String algorithm, long activationDelay,
+                                  boolean acceptLegacy) {
+        ReflectionTestUtils.setField(manager, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(manager, "jwtExpiration", 3600);
+        ReflectionTestUtils.setField(manager, "jwtRefreshExpiration", 7200);
+        ReflectionTestUtils.setField(manager, "algorithmName", algorithm);
+        ReflectionTestUtils.setField(manager, "privateKeyText", "");
+        ReflectionTestUtils.setField(manager, "publicKeyText", "");
+        ReflectionTestUtils.setField(manager, "acceptLegacy", acceptLegacy);
+        ReflectionTestUtils.setField(manager, "activationDelay", activationDelay);
+        ReflectionTestUtils.setField(manager, "keySyncInterval", 0L);
+    }
+
+    private static String sign(JwtKeyManager manager) {
+        JwtSigningKey key = manager.getCurrentKey();
+        JwtBuilder builder = Jwts.builder().setSubject("alice");
+        if (key.getKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.getKeyId());
+        }
+        return builder.signWith(key.getSigningKey(), key.getAlgorithm()).compact();
+    }
+
+    private static String verify(JwtKeyManager manager, String token) {
+        return Jwts.parserBuilder().setSigningKeyResolver(manager).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> jwkIds(JwtKeyManager manager) {
+        Map<String, Object> jwkSet = manager.getJwkSet();
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) jwkSet.get("keys");
+        return keys.stream().map(key -> (String) key.get("kid")).collect(Collectors.toList());
+    }
+}
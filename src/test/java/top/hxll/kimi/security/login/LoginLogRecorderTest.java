@@ -0,0 +1,52 @@
+package top.hxll.kimi.security.login;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import top.hxll.kimi.entity.LoginLog;
+import top.hxll.kimi.mapper.LoginLogMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 登录日志记录器测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class LoginLogRecorderTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void oversizedFieldsAreTruncatedToColumnLengths() {
+        LoginLogMapper mapper = mock(LoginLogMapper.class);
+        when(mapper.batchInsert(anyList())).thenReturn(1);
+        LoginLogRecorder recorder = new LoginLogRecorder(mapper, new SimpleMeterRegistry(), 64, 10, 60_000);
+
+        recorder.recordFailure(repeat('u', 300), repeat('9', 80), repeat('a', 1000), repeat('e', 400));
+        recorder.close();
+
+        ArgumentCaptor<List<LoginLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapper).batchInsert(captor.capture());
+        LoginLog loginLog = captor.getValue().get(0);
+        assertEquals(50, loginLog.getUsername().length());
+        assertEquals(50, loginLog.getLoginIp().length());
+        assertEquals(500, loginLog.getUserAgent().length());
+        assertEquals(255, loginLog.getErrorMessage().length());
+        assertEquals(0, loginLog.getLoginStatus());
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package top.hxll.kimi.security.rbac;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.entity.RolePermission;
+import top.hxll.kimi.entity.User;
+import top.hxll.kimi.security.service.UserDetailsImpl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户详情加载基准（种子数据集）
+ * 50个角色、1000个权限、10000条角色权限授予，用户持有5个角色。
+ * joinRows 模拟原连接查询返回的用户×角色×权限宽行在内存中去重组装的过程，
+ * narrowLoad 为按角色ID从目录解析角色和权限编码；两者都不含数据库往返，行数在启动时输出
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RbacLoadBenchmark {
+
+    private static final int ROLES = 50;
+
+    private static final int PERMISSIONS = 1000;
+
+    private static final int GRANTS = 10_000;
+
+    private static final int USER_ROLES = 5;
+
+    private List<Role> roles;
+
+    private List<Permission> permissions;
+
+    private List<RolePermission> grants;
+
+    private RbacSnapshot snapshot;
+
+    private List<Long> roleIds;
+
+    /**
+     * 原连接查询的结果行：用户列 + 角色 + 权限
+     */
+    private List<JoinRow> joinRows;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        roles = new ArrayList<>(ROLES);
+        for (long i = 1; i <= ROLES; i++) {
+            Role role = new Role();
+            role.setId(i);
+            role.setRoleCode("role" + i);
+            role.setRoleName("角色" + i);
+            role.setStatus(1);
+            role.setSortOrder((int) i);
+            roles.add(role);
+        }
+        permissions = new ArrayList<>(PERMISSIONS);
+        for (long i = 1; i <= PERMISSIONS; i++) {
+            Permission permission = new Permission();
+            permission.setId(i);
+            permission.setPermissionCode("module" + (i % 40) + ":action" + i);
+            permission.setPermissionName("权限" + i);
+            permission.setPermissionType(3);
+            permission.setParentId(0L);
+            permission.setSortOrder((int) i);
+            permission.setStatus(1);
+            permissions.add(permission);
+        }
+        Set<Long> granted = new LinkedHashSet<>();
+        while (granted.size() < GRANTS) {
+            long roleId = 1 + random.nextInt(ROLES);
+            long permissionId = 1 + random.nextInt(PERMISSIONS);
+            granted.add(roleId * 100_000 + permissionId);
+        }
+        grants = new ArrayList<>(GRANTS);
+        for (long key : granted) {
+            RolePermission grant = new RolePermission();
+            grant.setRoleId(key / 100_000);
+            grant.setPermissionId(key % 100_000);
+            grants.add(grant);
+        }
+        snapshot = new RbacSnapshot(roles, permissions, grants);
+
+        roleIds = new ArrayList<>(USER_ROLES);
+        while (roleIds.size() < USER_ROLES) {
+            long roleId = 1 + random.nextInt(ROLES);
+            if (!roleIds.contains(roleId)) {
+                roleIds.add(roleId);
+            }
+        }
+        joinRows = new ArrayList<>();
+        for (Long roleId : roleIds) {
+            for (Permission permission : snapshot.getPermissionsByRole(roleId)) {
+                joinRows.add(new JoinRow(snapshot.getRole(roleId), permission));
+            }
+        }
+        System.out.printf("%nrows per load: join=%d, narrow=%d (1 user + %d role ids), distinct permissions=%d%n",
+                joinRows.size(), 1 + roleIds.size(), roleIds.size(), snapshot.getPermissionCodes(roleIds).size());
+    }
+
+    @Benchmark
+    public RbacSnapshot buildSnapshot() {
+        return new RbacSnapshot(roles, permissions, grants);
+    }
+
+    @Benchmark
+    public UserDetailsImpl joinRows() {
+        User user = newUser();
+        Map<Long, Role> userRoles = new LinkedHashMap<>();
+        Set<String> codes = new LinkedHashSet<>();
+        for (JoinRow row : joinRows) {
+            // 每行都携带用户列，MyBatis按ID合并后再组装角色和权限集合
+            if (!user.getId().equals(row.userId) || !user.getPassword().equals(row.password)) {
+                throw new IllegalStateException();
+            }
+            userRoles.putIfAbsent(row.role.getId(), row.role);
+            codes.add(row.permission.getPermissionCode());
+        }
+        user.setRoles(new ArrayList<>(userRoles.values()));
+        user.setPermissions(new ArrayList<>(codes));
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl narrowLoad() {
+        User user = newUser();
+        user.setRoles(snapshot.getEnabledRoles(roleIds));
+        user.setPermissions(snapshot.getPermissionCodes(roleIds));
+        return UserDetailsImpl.build(user);
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setStatus(1);
+        return user;
+    }
+
+    private static final class JoinRow {
+
+        final Long userId = 1L;
+
+        final String password = "$2a$10$abcdefghijklmnopqrstuv";
+
+        final Role role;
+
+        final Permission permission;
+
+        JoinRow(Role role, Permission permission) {
+            this.role = role;
+            this.permission = permission;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package top.hxll.kimi.security.refresh;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import top.hxll.kimi.entity.RefreshToken;
+import top.hxll.kimi.mapper.RefreshTokenMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 数据库刷新令牌存储测试：令牌族吊销与并发轮换
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class DatabaseRefreshTokenStoreTest {
+
+    private final RefreshTokenMapper mapper = mock(RefreshTokenMapper.class);
+
+    private final DatabaseRefreshTokenStore store = new DatabaseRefreshTokenStore(mapper);
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), RefreshToken.class);
+    }
+
+    @Test
+    void successorOfRevokedFamilyIsSavedRevoked() {
+        when(mapper.selectCount(any())).thenReturn(1L);
+
+        store.save("next", "family", "alice", System.currentTimeMillis() + 60_000);
+
+        verify(mapper).insert(any(RefreshToken.class));
+        verify(mapper).update(isNull(), any());
+    }
+
+    @Test
+    void successorOfActiveFamilyIsSavedActive() {
+        when(mapper.selectCount(any())).thenReturn(0L);
+
+        store.save("next", "family", "alice", System.currentTimeMillis() + 60_000);
+
+        verify(mapper, never()).update(isNull(), any());
+    }
+
+    @Test
+    void tokenOfRevokedFamilyIsNotConsumed() {
+        when(mapper.update(isNull(), any())).thenReturn(1);
+        when(mapper.selectCount(any())).thenReturn(1L);
+
+        assertEquals(ConsumeResult.REVOKED, store.consume("next"));
+    }
+
+    @Test
+    void tokenOfActiveFamilyIsConsumed() {
+        when(mapper.update(isNull(), any())).thenReturn(1);
+        when(mapper.selectCount(any())).thenReturn(0L);
+
+        assertEquals(ConsumeResult.CONSUMED, store.consume("next"));
+    }
+}
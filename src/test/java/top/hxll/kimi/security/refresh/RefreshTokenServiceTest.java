@@ -0,0 +1,127 @@
+package top.hxll.kimi.security.refresh;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.common.exception.TokenException;
+import top.hxll.kimi.security.util.JwtUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 刷新令牌服务测试：轮换、重放检测与吊销
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class RefreshTokenServiceTest {
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+
+    /**
+     * 签发的令牌 -> 令牌声明，代替真实的签名与解析
+     */
+    private final Map<String, Claims> issued = new HashMap<>();
+
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.generateRefreshToken(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            Claims claims = new DefaultClaims();
+            claims.setSubject(invocation.getArgument(0));
+            claims.setId(invocation.getArgument(1));
+            claims.put(JwtUtils.CLAIM_TOKEN_TYPE, JwtUtils.TOKEN_TYPE_REFRESH);
+            claims.put(JwtUtils.CLAIM_FAMILY_ID, invocation.getArgument(2));
+            String token = "token-" + issued.size();
+            issued.put(token, claims);
+            return token;
+        });
+        service = new RefreshTokenService(store, jwtUtils);
+        ReflectionTestUtils.setField(service, "jwtRefreshExpiration", 3600);
+    }
+
+    @Test
+    void rotateIssuesSuccessorInSameFamily() {
+        Claims first = issued.get(service.issue("alice"));
+
+        Claims second = issued.get(service.rotate(first));
+
+        assertEquals("alice", second.getSubject());
+        assertEquals(familyOf(first), familyOf(second));
+        assertNotEquals(first.getId(), second.getId());
+        // 后继令牌同样可以继续轮换
+        assertEquals(familyOf(first), familyOf(issued.get(service.rotate(second))));
+    }
+
+    @Test
+    void reuseRevokesWholeFamily() {
+        Claims first = issued.get(service.issue("alice"));
+        Claims second = issued.get(service.rotate(first));
+
+        assertThrows(TokenException.class, () -> service.rotate(first));
+
+        // 重放之后，合法持有者手中的后继令牌也已失效
+        assertThrows(TokenException.class, () -> service.rotate(second));
+    }
+
+    @Test
+    void successorSavedAfterFamilyRevocationIsRevoked() {
+        Claims first = issued.get(service.issue("alice"));
+        String familyId = familyOf(first);
+
+        // 旧令牌已被使用、族被并发吊销之后才写入后继令牌
+        assertEquals(ConsumeResult.CONSUMED, store.consume(first.getId()));
+        store.revokeFamily(familyId);
+        store.save("late", familyId, "alice", System.currentTimeMillis() + 60_000);
+
+        assertEquals(ConsumeResult.REVOKED, store.consume("late"));
+    }
+
+    @Test
+    void revokeInvalidatesFamily() {
+        Claims first = issued.get(service.issue("alice"));
+        Claims other = issued.get(service.issue("alice"));
+
+        service.revoke(first);
+
+        assertThrows(TokenException.class, () -> service.rotate(first));
+        assertEquals("alice", issued.get(service.rotate(other)).getSubject());
+    }
+
+    @Test
+    void nonRefreshTokenIsRejected() {
+        Claims claims = new DefaultClaims();
+        claims.setSubject("alice");
+        claims.setId("access");
+
+        assertThrows(TokenException.class, () -> service.rotate(claims));
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        Claims claims = new DefaultClaims();
+        claims.setSubject("alice");
+        claims.setId("unknown");
+        claims.put(JwtUtils.CLAIM_TOKEN_TYPE, JwtUtils.TOKEN_TYPE_REFRESH);
+        claims.put(JwtUtils.CLAIM_FAMILY_ID, "family");
+
+        assertThrows(TokenException.class, () -> service.rotate(claims));
+    }
+
+    private static String familyOf(Claims claims) {
+        return claims.get(JwtUtils.CLAIM_FAMILY_ID, String.class);
+    }
+}
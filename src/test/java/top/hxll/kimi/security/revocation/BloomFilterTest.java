@@ -0,0 +1,49 @@
+package top.hxll.kimi.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 布隆过滤器测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class BloomFilterTest {
+
+    @Test
+    void containsEveryInsertedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("jti-" + i), "false negative for jti-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 目标1%，留出统计波动余量
+        assertTrue(falsePositives < probes * 0.02, "false positive rate too high: " + falsePositives);
+    }
+
+    @Test
+    void tinyCapacityStillWorks() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        filter.put("a");
+        assertTrue(filter.mightContain("a"));
+    }
+}
@@ -0,0 +1,140 @@
+package top.hxll.kimi.security.revocation;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 令牌吊销服务测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class TokenRevocationServiceTest {
+
+    private InMemoryRevocationStore store;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRevocationStore();
+        service = newService(store);
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersAreNot() {
+        Claims revoked = token("alice", System.currentTimeMillis());
+        Claims other = token("alice", System.currentTimeMillis());
+
+        assertTrue(service.revokeToken(revoked));
+
+        assertTrue(service.isRevoked(revoked));
+        assertFalse(service.isRevoked(other));
+    }
+
+    @Test
+    void tokenWithoutIdCannotBeRevokedIndividually() {
+        Claims claims = token("alice", System.currentTimeMillis());
+        claims.setId(null);
+
+        assertFalse(service.revokeToken(claims));
+    }
+
+    @Test
+    void userRevocationRejectsTokensIssuedInEarlierSeconds() {
+        long now = System.currentTimeMillis();
+        Claims earlier = token("alice", now - 2000);
+
+        service.revokeUserTokens("alice");
+
+        assertTrue(service.isRevoked(earlier));
+        assertFalse(service.isRevoked(token("bob", now - 2000)));
+    }
+
+    @Test
+    void tokenIssuedInSameSecondAfterUserRevocationStaysValid() {
+        service.revokeUserTokens("alice");
+
+        // iat 在令牌中只保留到秒，重新登录立即签发的令牌与吊销时间点处于同一秒
+        long issuedAt = System.currentTimeMillis() / 1000L * 1000L;
+        assertFalse(service.isRevoked(token("alice", issuedAt)));
+    }
+
+    @Test
+    void revocationsAreSyncedToOtherNodesThroughTheStore() {
+        TokenRevocationService otherNode = newService(store);
+        Claims claims = token("alice", System.currentTimeMillis());
+
+        service.revokeToken(claims);
+        assertFalse(otherNode.isRevoked(claims));
+
+        otherNode.sync();
+        assertTrue(otherNode.isRevoked(claims));
+    }
+
+    @Test
+    void filterIsRebuiltWhenCapacityIsExceeded() {
+        ReflectionTestUtils.setField(service, "bloomCapacity", 4);
+        service.init();
+
+        Claims[] tokens = new Claims[50];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = token("alice", System.currentTimeMillis());
+            service.revokeToken(tokens[i]);
+        }
+        for (Claims claims : tokens) {
+            assertTrue(service.isRevoked(claims));
+        }
+    }
+
+    @Test
+    void expiredEntriesArePurged() {
+        Claims claims = token("alice", System.currentTimeMillis());
+        store.save(RevocationEntry.ofToken(claims.getId(), System.currentTimeMillis() + 50));
+        service.sync();
+        assertTrue(service.isRevoked(claims));
+
+        sleep(100);
+        service.purgeExpired();
+
+        assertFalse(service.isRevoked(claims));
+        assertEquals(0, store.pollChanges().size());
+    }
+
+    private static TokenRevocationService newService(RevocationStore store) {
+        TokenRevocationService service = new TokenRevocationService(store);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 3600);
+        ReflectionTestUtils.setField(service, "jwtRefreshExpiration", 7200);
+        ReflectionTestUtils.setField(service, "bloomCapacity", 1000);
+        service.init();
+        return service;
+    }
+
+    private static Claims token(String username, long issuedAtMillis) {
+        Claims claims = Jwts.claims();
+        claims.setSubject(username);
+        claims.setId(UUID.randomUUID().toString());
+        // 与 JWT 序列化一致，iat 只保留到秒
+        claims.setIssuedAt(new Date(issuedAtMillis / 1000L * 1000L));
+        claims.setExpiration(new Date(issuedAtMillis + 3_600_000L));
+        return claims;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package top.hxll.kimi.security.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.common.cache.ExpiringLruCache;
+import top.hxll.kimi.entity.Permission;
+import top.hxll.kimi.entity.Role;
+import top.hxll.kimi.entity.RolePermission;
+import top.hxll.kimi.entity.User;
+import top.hxll.kimi.mapper.PermissionMapper;
+import top.hxll.kimi.mapper.RoleMapper;
+import top.hxll.kimi.mapper.RolePermissionMapper;
+import top.hxll.kimi.mapper.UserMapper;
+import top.hxll.kimi.mapper.UserRoleMapper;
+import top.hxll.kimi.security.authority.AuthorityCatalog;
+import top.hxll.kimi.security.authority.AuthorizationVersionService;
+import top.hxll.kimi.security.authority.InMemoryAuthorizationVersionStore;
+import top.hxll.kimi.security.event.AuthorizationChangedEvent;
+import top.hxll.kimi.security.rbac.RbacCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户详情服务测试：快照缓存与授权版本
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class UserDetailsServiceImplTest {
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+
+    private final UserRoleMapper userRoleMapper = mock(UserRoleMapper.class);
+
+    private AuthorizationVersionService versionService;
+
+    private UserDetailsServiceImpl service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // Lambda条件构造器需要实体的表信息，正常由MyBatis-Plus启动时初始化
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        RoleMapper roleMapper = mock(RoleMapper.class);
+        PermissionMapper permissionMapper = mock(PermissionMapper.class);
+        RolePermissionMapper rolePermissionMapper = mock(RolePermissionMapper.class);
+        when(roleMapper.selectList(any())).thenReturn(new ArrayList<Role>());
+        when(permissionMapper.selectList(any())).thenReturn(new ArrayList<Permission>());
+        when(rolePermissionMapper.selectList(any())).thenReturn(new ArrayList<RolePermission>());
+        RbacCatalog rbacCatalog = new RbacCatalog(roleMapper, permissionMapper, rolePermissionMapper);
+
+        versionService = new AuthorizationVersionService(new InMemoryAuthorizationVersionStore(), rbacCatalog);
+        ReflectionTestUtils.setField(versionService, "jwtExpirationSeconds", 86400);
+        versionService.init();
+
+        service = new UserDetailsServiceImpl(userMapper, userRoleMapper, mock(AuthorityCatalog.class),
+                versionService, rbacCatalog);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 600);
+        service.init();
+
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setPassword("hash");
+        user.setStatus(1);
+        when(userMapper.selectOne(any())).thenReturn(user);
+        when(userRoleMapper.selectRoleIdsByUserId(7L)).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void cachedSnapshotIsReused() {
+        UserDetailsImpl first = (UserDetailsImpl) service.loadUserByUsername("alice");
+
+        assertSame(first, service.loadUserByUsername("alice"));
+        verify(userMapper, times(1)).selectOne(any());
+    }
+
+    @Test
+    void cachedSnapshotIsDroppedOnceItsVersionIsStale() {
+        UserDetailsImpl first = (UserDetailsImpl) service.loadUserByUsername("alice");
+
+        // 模拟从其他节点同步到的授权变更：本节点没有收到失效事件，只有版本前移
+        versionService.bumpUsers(Collections.singleton(7L));
+
+        UserDetailsImpl reloaded = (UserDetailsImpl) service.loadUserByUsername("alice");
+        assertNotSame(first, reloaded);
+        assertSame(reloaded, service.loadUserByUsername("alice"));
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    void authorizationChangeEvictsAffectedSnapshot() {
+        UserDetailsImpl first = (UserDetailsImpl) service.loadUserByUsername("alice");
+
+        service.onAuthorizationChanged(AuthorizationChangedEvent.ofUsers(this, Collections.singleton(7L)));
+
+        assertNotSame(first, service.loadUserByUsername("alice"));
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    void roleChangeEvictsUsersHoldingTheRole() {
+        UserDetailsImpl first = (UserDetailsImpl) service.loadUserByUsername("alice");
+        when(userRoleMapper.selectUserIdsByRoleIds(any())).thenReturn(Collections.singletonList(7L));
+
+        service.onAuthorizationChanged(AuthorizationChangedEvent.ofRoles(this, Collections.singleton(3L)));
+
+        assertNotSame(first, service.loadUserByUsername("alice"));
+    }
+
+    @Test
+    void snapshotLoadedAcrossAnAuthorizationChangeIsNotCached() {
+        // 查询用户之后、写入缓存之前提交了授权变更：这次加载的结果已过时
+        when(userRoleMapper.selectRoleIdsByUserId(7L)).thenAnswer(invocation -> {
+            service.onAuthorizationChanged(AuthorizationChangedEvent.ofUsers(this, Collections.singleton(7L)));
+            return Collections.emptyList();
+        });
+        service.loadUserByUsername("alice");
+        assertEquals(0, ((ExpiringLruCache<?, ?>) ReflectionTestUtils.getField(service, "snapshots")).size());
+
+        when(userRoleMapper.selectRoleIdsByUserId(7L)).thenReturn(Collections.emptyList());
+        UserDetailsImpl reloaded = (UserDetailsImpl) service.loadUserByUsername("alice");
+
+        assertTrue(versionService.isCurrent(7L, reloaded.getAuthorizationVersion()));
+        assertSame(reloaded, service.loadUserByUsername("alice"));
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    void otherUsersKeepTheirSnapshots() {
+        UserDetailsImpl first = (UserDetailsImpl) service.loadUserByUsername("alice");
+
+        versionService.bumpUsers(Collections.singleton(8L));
+
+        assertSame(first, service.loadUserByUsername("alice"));
+    }
+}
@@ -0,0 +1,111 @@
+package top.hxll.kimi.security.throttle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.hxll.kimi.common.exception.BusinessException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录限流器测试
+ *
+ * @author kimi
+ * @since 1.0.0
+ */
+class LoginThrottleTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void blocksUsernameAfterTooManyFailures() {
+        LoginThrottle throttle = throttle(3, 100);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("alice", IP);
+            assertDoesNotThrow(() -> throttle.checkAllowed("alice", IP));
+        }
+
+        throttle.recordFailure("alice", IP);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> throttle.checkAllowed("alice", IP));
+        assertEquals(429, e.getCode());
+        // 用户名按大小写和首尾空格归一化
+        assertThrows(BusinessException.class, () -> throttle.checkAllowed(" ALICE ", "10.0.0.2"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("bob", IP));
+        assertEquals(1.0, meterRegistry.get("security.login.blocks").tag("key", "user").counter().count());
+    }
+
+    @Test
+    void blocksIpAcrossUsernames() {
+        LoginThrottle throttle = throttle(100, 5);
+        for (int i = 0; i < 6; i++) {
+            throttle.recordFailure("user" + i, IP);
+        }
+
+        assertThrows(BusinessException.class, () -> throttle.checkAllowed("someone-else", IP));
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone-else", "10.0.0.2"));
+    }
+
+    @Test
+    void successClearsUsernameFailuresButNotIpFailures() {
+        LoginThrottle throttle = throttle(3, 4);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("alice", IP);
+        }
+        throttle.recordSuccess("alice");
+
+        // 用户名计数已清零，IP计数继续累积并触发封禁
+        throttle.recordFailure("alice", IP);
+        throttle.recordFailure("alice", IP);
+        BusinessException e = assertThrows(BusinessException.class, () -> throttle.checkAllowed("bob", IP));
+        assertEquals(429, e.getCode());
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", "10.0.0.2"));
+    }
+
+    @Test
+    void blockExpiresAndBackoffGrows() throws InterruptedException {
+        LoginThrottle throttle = throttle(1, 100);
+        throttle.recordFailure("alice", IP);
+        throttle.recordFailure("alice", IP);
+        BusinessException first = assertThrows(BusinessException.class, () -> throttle.checkAllowed("alice", IP));
+        assertTrue(first.getMessage().contains("1秒"), first.getMessage());
+
+        Thread.sleep(1100);
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", IP));
+
+        // 窗口内继续失败，第二次封禁时长翻倍
+        throttle.recordFailure("alice", IP);
+        BusinessException second = assertThrows(BusinessException.class, () -> throttle.checkAllowed("alice", IP));
+        assertTrue(second.getMessage().contains("2秒"), second.getMessage());
+    }
+
+    @Test
+    void disabledThrottleNeverBlocks() {
+        LoginThrottle throttle = throttle(1, 1);
+        ReflectionTestUtils.setField(throttle, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("alice", IP);
+        }
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", IP));
+    }
+
+    @Test
+    void nullIpIsIgnored() {
+        LoginThrottle throttle = throttle(100, 1);
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("alice", null);
+        }
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", null));
+    }
+
+    private LoginThrottle throttle(int maxUserFailures, int maxIpFailures) {
+        LoginThrottle throttle = new LoginThrottle(300, maxUserFailures, maxIpFailures, 1, 3600, 1000, meterRegistry);
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        return throttle;
+    }
+}